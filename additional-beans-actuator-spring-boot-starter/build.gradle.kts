@@ -0,0 +1,21 @@
+plugins {
+	id("io.additionalbeans.java-library-conventions")
+}
+
+dependencies {
+	implementation(project(":additional-beans-commons"))
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("io.micrometer:micrometer-core")
+	compileOnly("com.zaxxer:HikariCP")
+	compileOnly("org.springframework.amqp:spring-rabbit")
+	compileOnly("org.springframework.data:spring-data-redis")
+	compileOnly("io.lettuce:lettuce-core")
+	compileOnly("org.apache.commons:commons-pool2")
+	compileOnly("org.mongodb:mongodb-driver-sync")
+	compileOnly("org.springframework.kafka:spring-kafka")
+	testImplementation(project(":additional-beans-jdbc-spring-boot-starter"))
+	testImplementation("org.springframework.boot:spring-boot-starter-jdbc")
+	testImplementation("com.h2database:h2")
+	testImplementation(project(":additional-beans-redis-spring-boot-starter"))
+	testImplementation("org.springframework.boot:spring-boot-starter-data-redis")
+}
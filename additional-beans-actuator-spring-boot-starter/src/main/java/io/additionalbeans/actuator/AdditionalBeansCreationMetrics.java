@@ -0,0 +1,53 @@
+package io.additionalbeans.actuator;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import io.additionalbeans.commons.AdditionalBeansPostProcessor;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * {@link MeterBinder} to publish the creation times of additional beans as timers
+ * tagged with module, prefix and bean name, a timer counts once its bean is created.
+ *
+ * @author Yanming Zhou
+ * @see AdditionalBeansPostProcessor#getCreationTimes()
+ */
+public class AdditionalBeansCreationMetrics implements MeterBinder {
+
+	public static final String METRIC_NAME = "additional.beans.creation";
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	public AdditionalBeansCreationMetrics(ConfigurableListableBeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public void bindTo(MeterRegistry registry) {
+		for (AdditionalBeansPostProcessor<?, ?> processor : this.beanFactory
+			.getBeansOfType(AdditionalBeansPostProcessor.class, false, false)
+			.values()) {
+			for (String prefix : processor.getPrefixes()) {
+				for (String beanName : processor.getBeanNames(prefix)) {
+					// the processor is held strongly by the bean factory
+					FunctionTimer
+						.builder(METRIC_NAME, processor,
+								(p) -> p.getCreationTimes().containsKey(beanName) ? 1 : 0,
+								(p) -> p.getCreationTimes().getOrDefault(beanName, Duration.ZERO).toNanos(),
+								TimeUnit.NANOSECONDS)
+						.description("Time spent creating and binding the bean, excluding its dependencies")
+						.tags("module", processor.getModule(), AdditionalBeansMeterFilter.PREFIX_TAG, prefix, "bean",
+								beanName)
+						.register(registry);
+				}
+			}
+		}
+	}
+
+}
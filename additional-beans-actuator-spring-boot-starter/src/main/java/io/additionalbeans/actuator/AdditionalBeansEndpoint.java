@@ -0,0 +1,218 @@
+package io.additionalbeans.actuator;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.connection.ClusterDescription;
+import com.mongodb.connection.ServerConnectionState;
+import io.additionalbeans.commons.AdditionalBeansPostProcessor;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.actuate.endpoint.OperationResponseBody;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.jdbc.metadata.CompositeDataSourcePoolMetadataProvider;
+import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadata;
+import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link Endpoint @Endpoint} to expose beans registered by
+ * {@link AdditionalBeansPostProcessor}, grouped by module and prefix.
+ * <p>
+ * Beans not created yet (lazy prefixes for example) are listed but never instantiated
+ * by this endpoint. Statistics are read from the beans without contacting servers,
+ * health is left to health indicators.
+ *
+ * @author Yanming Zhou
+ */
+@Endpoint(id = "additionalbeans")
+public class AdditionalBeansEndpoint {
+
+	private static final boolean rabbitPresent = ClassUtils.isPresent(
+			"org.springframework.amqp.rabbit.connection.CachingConnectionFactory",
+			AdditionalBeansEndpoint.class.getClassLoader());
+
+	private static final boolean lettucePresent = ClassUtils.isPresent(
+			"org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory",
+			AdditionalBeansEndpoint.class.getClassLoader())
+			&& ClassUtils.isPresent("io.lettuce.core.RedisClient", AdditionalBeansEndpoint.class.getClassLoader());
+
+	private static final boolean mongoPresent = ClassUtils.isPresent("com.mongodb.client.MongoClient",
+			AdditionalBeansEndpoint.class.getClassLoader());
+
+	private static final boolean kafkaPresent = ClassUtils.isPresent("org.springframework.kafka.core.KafkaTemplate",
+			AdditionalBeansEndpoint.class.getClassLoader());
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	private final ObjectProvider<DataSourcePoolMetadataProvider> dataSourcePoolMetadataProviders;
+
+	public AdditionalBeansEndpoint(ConfigurableListableBeanFactory beanFactory,
+			ObjectProvider<DataSourcePoolMetadataProvider> dataSourcePoolMetadataProviders) {
+		this.beanFactory = beanFactory;
+		this.dataSourcePoolMetadataProviders = dataSourcePoolMetadataProviders;
+	}
+
+	@ReadOperation
+	@SuppressWarnings("rawtypes")
+	public AdditionalBeansDescriptor additionalBeans() {
+		Map<String, Map<String, Map<String, BeanDescriptor>>> modules = new LinkedHashMap<>();
+		Map<String, AdditionalBeansPostProcessor> processors = this.beanFactory
+			.getBeansOfType(AdditionalBeansPostProcessor.class, false, false);
+		for (AdditionalBeansPostProcessor<?, ?> processor : processors.values()) {
+			Map<String, Map<String, BeanDescriptor>> prefixes = new LinkedHashMap<>();
+			for (String prefix : processor.getPrefixes()) {
+				Map<String, BeanDescriptor> beans = new LinkedHashMap<>();
+				for (String beanName : processor.getBeanNames(prefix)) {
+					beans.put(beanName, describe(beanName, processor.getCreationTimes().get(beanName)));
+				}
+				prefixes.put(prefix, beans);
+			}
+			modules.put(processor.getModule(), prefixes);
+		}
+		return new AdditionalBeansDescriptor(modules);
+	}
+
+	private BeanDescriptor describe(String beanName, Duration creationTime) {
+		Class<?> type = this.beanFactory.getType(beanName, false);
+		String typeName = (type != null) ? type.getName() : null;
+		if (!this.beanFactory.containsSingleton(beanName)) {
+			return new BeanDescriptor(typeName, false, creationTime, Collections.emptyMap());
+		}
+		return new BeanDescriptor(typeName, true, creationTime, statsFor(this.beanFactory.getSingleton(beanName)));
+	}
+
+	private Map<String, Object> statsFor(Object bean) {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		if (bean instanceof DataSource dataSource) {
+			DataSourcePoolMetadata metadata = new CompositeDataSourcePoolMetadataProvider(
+					this.dataSourcePoolMetadataProviders.orderedStream().toList())
+				.getDataSourcePoolMetadata(dataSource);
+			if (metadata != null) {
+				stats.put("active", metadata.getActive());
+				stats.put("idle", metadata.getIdle());
+				stats.put("min", metadata.getMin());
+				stats.put("max", metadata.getMax());
+				stats.put("usage", metadata.getUsage());
+			}
+		}
+		else {
+			if (rabbitPresent) {
+				RabbitStats.collect(bean, stats);
+			}
+			if (lettucePresent) {
+				RedisStats.collect(bean, stats);
+			}
+			if (mongoPresent) {
+				MongoStats.collect(bean, stats);
+			}
+			if (kafkaPresent) {
+				KafkaStats.collect(bean, stats);
+			}
+		}
+		return stats;
+	}
+
+	private static final class RabbitStats {
+
+		static void collect(Object bean, Map<String, Object> stats) {
+			if (bean instanceof CachingConnectionFactory connectionFactory) {
+				connectionFactory.getCacheProperties().forEach((key, value) -> stats.put(key.toString(), value));
+			}
+		}
+
+	}
+
+	private static final class RedisStats {
+
+		static void collect(Object bean, Map<String, Object> stats) {
+			// Lettuce doesn't expose connection counts, the pool sizes are reported
+			if (bean instanceof LettuceConnectionFactory connectionFactory) {
+				stats.put("running", connectionFactory.isRunning());
+				stats.put("shareNativeConnection", connectionFactory.getShareNativeConnection());
+				if (connectionFactory.getClientConfiguration() instanceof LettucePoolingClientConfiguration pooling) {
+					GenericObjectPoolConfig<?> poolConfig = pooling.getPoolConfig();
+					stats.put("maxActive", poolConfig.getMaxTotal());
+					stats.put("maxIdle", poolConfig.getMaxIdle());
+					stats.put("minIdle", poolConfig.getMinIdle());
+				}
+			}
+		}
+
+	}
+
+	private static final class MongoStats {
+
+		static void collect(Object bean, Map<String, Object> stats) {
+			if (bean instanceof MongoClient mongoClient) {
+				// the last known state of the cluster, never blocks
+				ClusterDescription cluster = mongoClient.getClusterDescription();
+				stats.put("clusterType", cluster.getType().name());
+				stats.put("servers", cluster.getServerDescriptions().size());
+				stats.put("connectedServers", cluster.getServerDescriptions()
+					.stream()
+					.filter((server) -> server.getState() == ServerConnectionState.CONNECTED)
+					.count());
+			}
+		}
+
+	}
+
+	private static final class KafkaStats {
+
+		private static final String PRODUCER_METRICS_GROUP = "producer-metrics";
+
+		private static final Set<String> PRODUCER_METRICS = Set.of("connection-count", "record-send-rate",
+				"record-error-rate", "request-latency-avg", "buffer-available-bytes", "waiting-threads");
+
+		static void collect(Object bean, Map<String, Object> stats) {
+			// the shared producer is created if none, unless it would be initialized
+			// against the brokers for transactions
+			if (bean instanceof KafkaTemplate<?, ?> kafkaTemplate && !kafkaTemplate.isTransactional()) {
+				kafkaTemplate.metrics().forEach((name, metric) -> {
+					if (PRODUCER_METRICS_GROUP.equals(name.group()) && PRODUCER_METRICS.contains(name.name())) {
+						stats.put(name.name(), metric.metricValue());
+					}
+				});
+			}
+		}
+
+	}
+
+	/**
+	 * Description of additional beans, keyed by module, prefix and bean name.
+	 *
+	 * @param modules additional beans keyed by module, prefix and bean name
+	 */
+	public record AdditionalBeansDescriptor(
+			Map<String, Map<String, Map<String, BeanDescriptor>>> modules) implements OperationResponseBody {
+
+	}
+
+	/**
+	 * Description of an additional bean.
+	 *
+	 * @param type the bean type
+	 * @param created whether the bean has been created
+	 * @param creationTime the time spent creating the bean, {@code null} if unknown
+	 * @param stats the resource statistics of the bean, e.g. pool usage of a DataSource,
+	 * or producer metrics of a KafkaTemplate
+	 */
+	public record BeanDescriptor(String type, boolean created, Duration creationTime, Map<String, Object> stats) {
+
+	}
+
+}
@@ -0,0 +1,25 @@
+package io.additionalbeans.actuator;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * @author Yanming Zhou
+ */
+@AutoConfiguration
+@ConditionalOnAvailableEndpoint(AdditionalBeansEndpoint.class)
+public class AdditionalBeansEndpointAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	public AdditionalBeansEndpoint additionalBeansEndpoint(ConfigurableListableBeanFactory beanFactory,
+			ObjectProvider<DataSourcePoolMetadataProvider> dataSourcePoolMetadataProviders) {
+		return new AdditionalBeansEndpoint(beanFactory, dataSourcePoolMetadataProviders);
+	}
+
+}
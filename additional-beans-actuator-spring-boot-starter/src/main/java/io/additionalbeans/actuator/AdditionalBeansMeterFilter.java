@@ -0,0 +1,71 @@
+package io.additionalbeans.actuator;
+
+import java.util.Map;
+
+import io.additionalbeans.commons.AdditionalBeansPostProcessor;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+/**
+ * {@link MeterFilter} to tag client meters with the prefix of the additional bean they
+ * are bound to, meters of primary beans are tagged with an empty prefix to keep tag keys
+ * consistent.
+ *
+ * @author Yanming Zhou
+ */
+public class AdditionalBeansMeterFilter implements MeterFilter {
+
+	public static final String PREFIX_TAG = "prefix";
+
+	private static final Map<String, String> IDENTIFYING_TAGS = Map.of("hikaricp.", "pool", "jdbc.connections.",
+			"name", "rabbitmq.", "name", "kafka.", "spring.id");
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	public AdditionalBeansMeterFilter(ConfigurableListableBeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override
+	public Meter.Id map(Meter.Id id) {
+		if (id.getTag(PREFIX_TAG) != null) {
+			return id;
+		}
+		for (Map.Entry<String, String> entry : IDENTIFYING_TAGS.entrySet()) {
+			if (id.getName().startsWith(entry.getKey())) {
+				return id.withTag(Tag.of(PREFIX_TAG, prefixOf(id.getTag(entry.getValue()))));
+			}
+		}
+		return id;
+	}
+
+	@SuppressWarnings("rawtypes")
+	private String prefixOf(String identifier) {
+		if (identifier == null) {
+			return "";
+		}
+		for (AdditionalBeansPostProcessor processor : this.beanFactory
+			.getBeansOfType(AdditionalBeansPostProcessor.class, false, false)
+			.values()) {
+			if (processor.getPrefixes().contains(identifier)) {
+				return identifier;
+			}
+		}
+		// e.g. "fooProducerFactory.producer-1" for kafka
+		int index = identifier.indexOf('.');
+		String beanName = (index > 0) ? identifier.substring(0, index) : identifier;
+		if (this.beanFactory.containsBeanDefinition(beanName)) {
+			BeanDefinition bd = this.beanFactory.getBeanDefinition(beanName);
+			Object prefix = bd.getAttribute(AdditionalBeansPostProcessor.PREFIX_ATTRIBUTE);
+			if (prefix != null) {
+				return prefix.toString();
+			}
+		}
+		return "";
+	}
+
+}
@@ -0,0 +1,42 @@
+package io.additionalbeans.actuator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * @author Yanming Zhou
+ */
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+public class AdditionalBeansMetricsAutoConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "additional.metrics", name = "prefix-tag-enabled", matchIfMissing = true)
+	public AdditionalBeansMeterFilter additionalBeansMeterFilter(ConfigurableListableBeanFactory beanFactory) {
+		return new AdditionalBeansMeterFilter(beanFactory);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public AdditionalBeansCreationMetrics additionalBeansCreationMetrics(ConfigurableListableBeanFactory beanFactory) {
+		return new AdditionalBeansCreationMetrics(beanFactory);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public static AdditionalDataSourceMetricsPostProcessor additionalDataSourceMetricsPostProcessor(
+			ConfigurableListableBeanFactory beanFactory, ObjectProvider<MeterRegistry> meterRegistry,
+			ObjectProvider<DataSourcePoolMetadataProvider> metadataProviders) {
+		return new AdditionalDataSourceMetricsPostProcessor(beanFactory, meterRegistry, metadataProviders);
+	}
+
+}
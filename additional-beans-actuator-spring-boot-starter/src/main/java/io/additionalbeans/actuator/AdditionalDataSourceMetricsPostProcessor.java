@@ -0,0 +1,80 @@
+package io.additionalbeans.actuator;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.additionalbeans.commons.AdditionalBeansPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.actuate.metrics.jdbc.DataSourcePoolMetrics;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link BeanPostProcessor} to bind pool metrics of additional data sources, they are not
+ * default candidates so Spring Boot's data source metrics skip them. Meters are named
+ * after the prefix and tagged by {@link AdditionalBeansMeterFilter}, Hikari metrics are
+ * bound unless the pool already has a metrics tracker.
+ *
+ * @author Yanming Zhou
+ */
+public class AdditionalDataSourceMetricsPostProcessor implements BeanPostProcessor {
+
+	private static final String HIKARI_DATASOURCE_CLASS_NAME = "com.zaxxer.hikari.HikariDataSource";
+
+	private final ConfigurableListableBeanFactory beanFactory;
+
+	private final ObjectProvider<MeterRegistry> meterRegistry;
+
+	private final ObjectProvider<DataSourcePoolMetadataProvider> metadataProviders;
+
+	public AdditionalDataSourceMetricsPostProcessor(ConfigurableListableBeanFactory beanFactory,
+			ObjectProvider<MeterRegistry> meterRegistry,
+			ObjectProvider<DataSourcePoolMetadataProvider> metadataProviders) {
+		this.beanFactory = beanFactory;
+		this.meterRegistry = meterRegistry;
+		this.metadataProviders = metadataProviders;
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof DataSource dataSource && this.beanFactory.containsBeanDefinition(beanName)) {
+			Object prefix = this.beanFactory.getMergedBeanDefinition(beanName)
+				.getAttribute(AdditionalBeansPostProcessor.PREFIX_ATTRIBUTE);
+			if (prefix != null && StringUtils.hasText(prefix.toString())) {
+				this.meterRegistry.ifAvailable((registry) -> bind(registry, dataSource, prefix.toString()));
+			}
+		}
+		return bean;
+	}
+
+	private void bind(MeterRegistry registry, DataSource dataSource, String prefix) {
+		new DataSourcePoolMetrics(dataSource, this.metadataProviders.orderedStream().toList(), prefix, Tags.empty())
+			.bindTo(registry);
+		if (ClassUtils.isPresent(HIKARI_DATASOURCE_CLASS_NAME, getClass().getClassLoader())) {
+			HikariMetrics.bind(registry, dataSource);
+		}
+	}
+
+	private static final class HikariMetrics {
+
+		static void bind(MeterRegistry registry, DataSource dataSource) {
+			HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class,
+					HikariDataSource.class);
+			if (hikari != null && hikari.getMetricRegistry() == null && hikari.getMetricsTrackerFactory() == null) {
+				hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+			}
+		}
+
+	}
+
+}
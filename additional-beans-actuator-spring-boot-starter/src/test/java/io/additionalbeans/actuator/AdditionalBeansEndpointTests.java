@@ -0,0 +1,80 @@
+package io.additionalbeans.actuator;
+
+import java.util.Map;
+
+import io.additionalbeans.actuator.AdditionalBeansEndpoint.AdditionalBeansDescriptor;
+import io.additionalbeans.actuator.AdditionalBeansEndpoint.BeanDescriptor;
+import io.additionalbeans.jdbc.AdditionalJdbcAutoConfiguration;
+import io.additionalbeans.redis.AdditionalRedisAutoConfiguration;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Yanming Zhou
+ */
+class AdditionalBeansEndpointTests {
+
+	private static final ApplicationContextRunner runner = new ApplicationContextRunner()
+		.withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+				DataSourceTransactionManagerAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+				AdditionalJdbcAutoConfiguration.class, AdditionalBeansEndpointAutoConfiguration.class))
+		.withPropertyValues("management.endpoints.web.exposure.include=additionalbeans",
+				"additional.jdbc.prefixes=foo,bar", "additional.jdbc.bar.lazy=true",
+				"spring.datasource.driver-class-name=org.h2.Driver", "spring.datasource.url=jdbc:h2:mem:default",
+				"foo.datasource.url=jdbc:h2:mem:foo", "foo.datasource.hikari.maximum-pool-size=40",
+				"bar.datasource.url=jdbc:h2:mem:bar");
+
+	@Test
+	void testEndpointIsNotAvailableByDefault() {
+		runner.withPropertyValues("management.endpoints.web.exposure.include=health")
+			.run((ctx) -> assertThat(ctx).doesNotHaveBean(AdditionalBeansEndpoint.class));
+	}
+
+	@Test
+	void testAdditionalBeans() {
+		runner.run((ctx) -> {
+			AdditionalBeansDescriptor descriptor = ctx.getBean(AdditionalBeansEndpoint.class).additionalBeans();
+			assertThat(descriptor.modules()).containsOnlyKeys("jdbc");
+			Map<String, Map<String, BeanDescriptor>> prefixes = descriptor.modules().get("jdbc");
+			assertThat(prefixes).containsOnlyKeys("foo", "bar");
+
+			BeanDescriptor fooDataSource = prefixes.get("foo").get("fooDataSource");
+			assertThat(fooDataSource.created()).isTrue();
+			assertThat(fooDataSource.creationTime()).isNotNull();
+			assertThat(fooDataSource.stats()).containsEntry("max", 40);
+			assertThat(prefixes.get("foo")).containsKeys("fooJdbcTemplate", "fooTransactionManager");
+
+			BeanDescriptor barDataSource = prefixes.get("bar").get("barDataSource");
+			assertThat(barDataSource.created()).isFalse();
+			assertThat(ctx.getBeanFactory().containsSingleton("barDataSource")).isFalse();
+		});
+	}
+
+	@Test
+	void testStatsOfRedisPrefix() {
+		new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(RedisAutoConfiguration.class,
+					AdditionalRedisAutoConfiguration.class, AdditionalBeansEndpointAutoConfiguration.class))
+			.withPropertyValues("management.endpoints.web.exposure.include=additionalbeans",
+					"additional.redis.prefixes=foo", "foo.data.redis.port=1")
+			.run((ctx) -> {
+				AdditionalBeansDescriptor descriptor = ctx.getBean(AdditionalBeansEndpoint.class).additionalBeans();
+				BeanDescriptor fooRedisConnectionFactory = descriptor.modules()
+					.get("redis")
+					.get("foo")
+					.get("fooRedisConnectionFactory");
+				// the unreachable server is not contacted
+				assertThat(fooRedisConnectionFactory.stats()).containsEntry("running", true)
+					.doesNotContainKeys("status", "maxActive");
+			});
+	}
+
+}
@@ -0,0 +1,100 @@
+package io.additionalbeans.actuator;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import io.additionalbeans.jdbc.AdditionalJdbcAutoConfiguration;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.jdbc.DataSourcePoolMetricsAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Yanming Zhou
+ */
+class AdditionalBeansMetricsAutoConfigurationTests {
+
+	private static final ApplicationContextRunner runner = new ApplicationContextRunner()
+		.withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+				AdditionalJdbcAutoConfiguration.class, AdditionalBeansMetricsAutoConfiguration.class))
+		.withPropertyValues("additional.jdbc.prefixes=foo,bar", "spring.datasource.url=jdbc:h2:mem:default",
+				"foo.datasource.url=jdbc:h2:mem:foo", "bar.datasource.url=jdbc:h2:mem:bar");
+
+	@Test
+	void testPrefixTag() {
+		runner.run((ctx) -> {
+			SimpleMeterRegistry registry = new SimpleMeterRegistry();
+			registry.config().meterFilter(ctx.getBean(AdditionalBeansMeterFilter.class));
+			registry.gauge("jdbc.connections.max", Tags.of("name", "dataSource"), 10);
+			registry.gauge("jdbc.connections.max", Tags.of("name", "foo"), 20);
+			registry.gauge("hikaricp.connections.max", Tags.of("pool", "bar"), 30);
+			registry.gauge("jvm.threads.live", Tags.empty(), 1);
+			assertThat(registry.get("jdbc.connections.max").tag("name", "dataSource").gauge().getId().getTag("prefix"))
+				.isEmpty();
+			assertThat(registry.get("jdbc.connections.max").tag("name", "foo").gauge().getId().getTag("prefix"))
+				.isEqualTo("foo");
+			assertThat(registry.get("hikaricp.connections.max").gauge().getId().getTag("prefix")).isEqualTo("bar");
+			assertThat(registry.get("jvm.threads.live").gauge().getId().getTag("prefix")).isNull();
+		});
+	}
+
+	@Test
+	void testDataSourcePoolMetrics() {
+		runner
+			.withConfiguration(AutoConfigurations.of(MetricsAutoConfiguration.class,
+					SimpleMetricsExportAutoConfiguration.class, DataSourcePoolMetricsAutoConfiguration.class))
+			.withPropertyValues("spring.datasource.name=spring")
+			.run((ctx) -> {
+				for (String beanName : new String[] { "dataSource", "fooDataSource", "barDataSource" }) {
+					ctx.getBean(beanName, DataSource.class).getConnection().close();
+				}
+				MeterRegistry registry = ctx.getBean(MeterRegistry.class);
+				assertThat(registry.get("hikaricp.connections").tag("pool", "foo").gauge().getId().getTag("prefix"))
+					.isEqualTo("foo");
+				assertThat(registry.get("hikaricp.connections").tag("pool", "bar").gauge().getId().getTag("prefix"))
+					.isEqualTo("bar");
+				assertThat(registry.get("hikaricp.connections").tag("pool", "spring").gauge().getId().getTag("prefix"))
+					.isEmpty();
+				assertThat(registry.get("jdbc.connections.max").tag("name", "foo").gauge().getId().getTag("prefix"))
+					.isEqualTo("foo");
+				assertThat(
+						registry.get("jdbc.connections.max").tag("name", "dataSource").gauge().getId().getTag("prefix"))
+					.isEmpty();
+			});
+	}
+
+	@Test
+	void testPrefixTagCanBeDisabled() {
+		runner.withPropertyValues("additional.metrics.prefix-tag-enabled=false").run((ctx) -> {
+			assertThat(ctx).doesNotHaveBean(AdditionalBeansMeterFilter.class);
+			assertThat(ctx).hasSingleBean(AdditionalBeansCreationMetrics.class);
+		});
+	}
+
+	@Test
+	void testCreationTimers() {
+		runner.run((ctx) -> {
+			SimpleMeterRegistry registry = new SimpleMeterRegistry();
+			ctx.getBean(AdditionalBeansCreationMetrics.class).bindTo(registry);
+			FunctionTimer timer = registry.get(AdditionalBeansCreationMetrics.METRIC_NAME)
+				.tags("module", "jdbc", "prefix", "foo", "bean", "fooDataSource")
+				.functionTimer();
+			assertThat(timer.count()).isEqualTo(1);
+			assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+			assertThat(registry.get(AdditionalBeansCreationMetrics.METRIC_NAME).tag("prefix", "bar").functionTimers())
+				.isNotEmpty();
+		});
+	}
+
+}
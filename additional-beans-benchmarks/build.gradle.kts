@@ -0,0 +1,25 @@
+plugins {
+	id("io.additionalbeans.java-common-conventions")
+	id("me.champeau.jmh")
+}
+
+dependencies {
+	jmh(project(":additional-beans-commons"))
+	listOf("jdbc", "redis", "mongodb", "kafka", "rabbitmq").forEach {
+		jmh(project(":additional-beans-$it-spring-boot-starter"))
+	}
+	jmh("org.springframework.boot:spring-boot-autoconfigure")
+	jmh("org.springframework.boot:spring-boot-test")
+	jmh("org.assertj:assertj-core")
+	jmh("org.springframework:spring-jdbc")
+	jmh("com.h2database:h2")
+}
+
+jmh {
+	val includes: String? by project
+	if (includes != null) {
+		this.includes = listOf(includes)
+	}
+	profilers = listOf("gc")
+	resultFormat = "JSON"
+}
@@ -0,0 +1,161 @@
+package io.additionalbeans.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.additionalbeans.jdbc.AdditionalJdbcAutoConfiguration;
+import io.additionalbeans.kafka.AdditionalKafkaAutoConfiguration;
+import io.additionalbeans.mongodb.AdditionalMongodbAutoConfiguration;
+import io.additionalbeans.rabbitmq.AdditionalRabbitmqAutoConfiguration;
+import io.additionalbeans.redis.AdditionalRedisAutoConfiguration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcClientAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoAutoConfiguration;
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+/**
+ * Measures refresh time, allocation (via the {@code gc} profiler) and retained heap of
+ * an application context with a growing number of additional prefixes.
+ *
+ * @author Yanming Zhou
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdditionalBeansStartupBenchmark {
+
+	@Param({ "1", "10", "100", "500" })
+	public int prefixes;
+
+	@Param
+	public Starter starter;
+
+	private ApplicationContextRunner runner;
+
+	@Setup
+	public void setup() {
+		this.runner = new ApplicationContextRunner().withConfiguration(this.starter.autoConfigurations)
+			.withPropertyValues(this.starter.properties(this.prefixes));
+	}
+
+	@Benchmark
+	public void refresh(Blackhole blackhole) {
+		this.runner.run((ctx) -> blackhole.consume(started(ctx)));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 1)
+	@Measurement(iterations = 5)
+	public void retainedHeap(RetainedHeap retainedHeap) {
+		this.runner.run((ctx) -> {
+			started(ctx);
+			retainedHeap.bytes += RetainedHeap.usedHeap() - retainedHeap.baseline;
+		});
+	}
+
+	private static AssertableApplicationContext started(AssertableApplicationContext ctx) {
+		// a failed refresh is much cheaper than a successful one
+		if (ctx.getStartupFailure() != null) {
+			throw new IllegalStateException("Failed to refresh application context", ctx.getStartupFailure());
+		}
+		return ctx;
+	}
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class RetainedHeap {
+
+		private static final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+		public long bytes;
+
+		private long baseline;
+
+		@Setup(Level.Iteration)
+		public void setup() {
+			this.bytes = 0;
+			this.baseline = usedHeap();
+		}
+
+		static long usedHeap() {
+			for (int i = 0; i < 3; i++) {
+				System.gc();
+			}
+			return memory.getHeapMemoryUsage().getUsed();
+		}
+
+	}
+
+	public enum Starter {
+
+		JDBC(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+				DataSourceTransactionManagerAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+				JdbcClientAutoConfiguration.class, AdditionalJdbcAutoConfiguration.class), "jdbc",
+				"spring.datasource.driver-class-name=org.h2.Driver", "spring.datasource.url=jdbc:h2:mem:default"),
+
+		REDIS(AutoConfigurations.of(RedisAutoConfiguration.class, AdditionalRedisAutoConfiguration.class), "redis",
+				"spring.data.redis.host=127.0.0.1"),
+
+		MONGODB(AutoConfigurations.of(MongoAutoConfiguration.class, MongoDataAutoConfiguration.class,
+				AdditionalMongodbAutoConfiguration.class), "mongodb", "spring.data.mongodb.host=127.0.0.1"),
+
+		KAFKA(AutoConfigurations.of(KafkaAutoConfiguration.class, AdditionalKafkaAutoConfiguration.class), "kafka",
+				"spring.kafka.bootstrap-servers=127.0.0.1:9092", "spring.kafka.admin.fail-fast=false"),
+
+		RABBITMQ(AutoConfigurations.of(RabbitAutoConfiguration.class, AdditionalRabbitmqAutoConfiguration.class),
+				"rabbitmq", "spring.rabbitmq.host=127.0.0.1");
+
+		private final AutoConfigurations autoConfigurations;
+
+		private final String module;
+
+		private final String[] properties;
+
+		Starter(AutoConfigurations autoConfigurations, String module, String... properties) {
+			this.autoConfigurations = autoConfigurations;
+			this.module = module;
+			this.properties = properties;
+		}
+
+		String[] properties(int prefixes) {
+			List<String> properties = new ArrayList<>(List.of(this.properties));
+			properties.add("additional.%s.prefixes=%s".formatted(this.module,
+					IntStream.range(0, prefixes).mapToObj((i) -> "p" + i).collect(Collectors.joining(","))));
+			return properties.toArray(new String[0]);
+		}
+
+	}
+
+}
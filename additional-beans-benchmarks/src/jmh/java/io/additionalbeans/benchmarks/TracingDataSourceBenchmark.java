@@ -0,0 +1,97 @@
+package io.additionalbeans.benchmarks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.additionalbeans.jdbc.TracingDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Measures the overhead of the proxies of {@link TracingDataSource} on a single row query
+ * and on reading many rows executed by {@link JdbcTemplate}, over a single in-memory H2
+ * connection so the proxies are not hidden by connection acquisition or network latency.
+ *
+ * @author Yanming Zhou
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TracingDataSourceBenchmark {
+
+	private static final String SQL = "select id from traced where id = ?";
+
+	private static final String ROWS_SQL = "select id from traced order by id";
+
+	private static final int ROWS = 1000;
+
+	private SingleConnectionDataSource dataSource;
+
+	private JdbcTemplate plain;
+
+	private JdbcTemplate traced;
+
+	@Setup
+	public void setup() {
+		this.dataSource = new SingleConnectionDataSource("jdbc:h2:mem:tracing", true);
+		this.plain = new JdbcTemplate(this.dataSource);
+		this.traced = new JdbcTemplate(
+				new TracingDataSource(this.dataSource, "benchmark", Duration.ofDays(1), new NoOpListener()));
+		this.plain.execute("create table traced (id int primary key)");
+		this.plain.update("insert into traced select x from system_range(1, ?)", ROWS);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.dataSource.destroy();
+	}
+
+	@Benchmark
+	public Integer plain() {
+		return this.plain.queryForObject(SQL, Integer.class, 1);
+	}
+
+	@Benchmark
+	public Integer traced() {
+		return this.traced.queryForObject(SQL, Integer.class, 1);
+	}
+
+	@Benchmark
+	public List<Integer> plainRows() {
+		return this.plain.queryForList(ROWS_SQL, Integer.class);
+	}
+
+	@Benchmark
+	public List<Integer> tracedRows() {
+		return this.traced.queryForList(ROWS_SQL, Integer.class);
+	}
+
+	private static final class NoOpListener implements TracingDataSource.Listener {
+
+		@Override
+		public void connectionAcquired(long nanos, boolean success) {
+		}
+
+		@Override
+		public void statementExecuted(String sql, long nanos, long rows, boolean success) {
+		}
+
+	}
+
+}
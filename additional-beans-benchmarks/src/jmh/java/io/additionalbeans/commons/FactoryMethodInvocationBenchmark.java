@@ -0,0 +1,85 @@
+package io.additionalbeans.commons;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.boot.autoconfigure.jdbc.JdbcClientAutoConfiguration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Compares {@link Method#invoke} and {@link Constructor#newInstance} with
+ * {@link MethodHandle#invokeExact} of the invokers built by
+ * {@link AdditionalBeansPostProcessor#invokerFor}, on the constructor and the factory
+ * method of a Spring Boot auto-configuration. It lives in the package of the processor to
+ * access the package private invokers.
+ *
+ * @author Yanming Zhou
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FactoryMethodInvocationBenchmark {
+
+	private static final Object[] NO_ARGUMENTS = new Object[0];
+
+	private Constructor<?> constructor;
+
+	private Method factoryMethod;
+
+	private MethodHandle constructorInvoker;
+
+	private MethodHandle factoryMethodInvoker;
+
+	private Object configuration;
+
+	private Object[] arguments;
+
+	@Setup
+	public void setup() throws Exception {
+		this.constructor = AdditionalBeansPostProcessor.constructorsFor(JdbcClientAutoConfiguration.class)[0];
+		this.factoryMethod = AdditionalBeansPostProcessor.factoryMethodFor(JdbcClientAutoConfiguration.class,
+				"jdbcClient");
+		this.constructorInvoker = AdditionalBeansPostProcessor.invokerFor(this.constructor);
+		this.factoryMethodInvoker = AdditionalBeansPostProcessor.invokerFor(this.factoryMethod);
+		this.configuration = this.constructor.newInstance();
+		this.arguments = new Object[] { new NamedParameterJdbcTemplate(new JdbcTemplate()) };
+	}
+
+	@Benchmark
+	public Object constructorNewInstance() throws Exception {
+		return this.constructor.newInstance(NO_ARGUMENTS);
+	}
+
+	@Benchmark
+	public Object constructorInvokeExact() throws Throwable {
+		return (Object) this.constructorInvoker.invokeExact((Object) null, NO_ARGUMENTS);
+	}
+
+	@Benchmark
+	public Object factoryMethodInvoke() throws Exception {
+		return this.factoryMethod.invoke(this.configuration, this.arguments);
+	}
+
+	@Benchmark
+	public Object factoryMethodInvokeExact() throws Throwable {
+		return (Object) this.factoryMethodInvoker.invokeExact(this.configuration, this.arguments);
+	}
+
+}
@@ -0,0 +1,64 @@
+package io.additionalbeans.commons;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.boot.autoconfigure.jdbc.JdbcClientAutoConfiguration;
+
+/**
+ * Compares the cached lookups of {@link AdditionalBeansPostProcessor#factoryMethodFor}
+ * and {@link AdditionalBeansPostProcessor#constructorsFor} with scanning declared members
+ * and making them accessible for every bean created.
+ *
+ * @author Yanming Zhou
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReflectiveLookupBenchmark {
+
+	private final Class<?> configurationClass = JdbcClientAutoConfiguration.class;
+
+	@Benchmark
+	public Method cachedFactoryMethod() {
+		return AdditionalBeansPostProcessor.factoryMethodFor(this.configurationClass, "jdbcClient");
+	}
+
+	@Benchmark
+	public Method uncachedFactoryMethod() {
+		Method factoryMethod = Stream.of(this.configurationClass.getDeclaredMethods())
+			.filter((m) -> m.getName().equals("jdbcClient"))
+			.findFirst()
+			.orElseThrow();
+		factoryMethod.setAccessible(true);
+		return factoryMethod;
+	}
+
+	@Benchmark
+	public Constructor<?> cachedConstructor() {
+		return AdditionalBeansPostProcessor.constructorsFor(this.configurationClass)[0];
+	}
+
+	@Benchmark
+	public Constructor<?> uncachedConstructor() {
+		Constructor<?> constructor = this.configurationClass.getDeclaredConstructors()[0];
+		constructor.setAccessible(true);
+		return constructor;
+	}
+
+}
@@ -4,7 +4,7 @@ plugins {
 
 dependencies {
 	constraints {
-		rootProject.subprojects.filter { !it.name.endsWith("-bom") }.forEach {
+		rootProject.subprojects.filter { !it.name.endsWith("-bom") && !it.name.endsWith("-benchmarks") }.forEach {
 			api("${it.group}:${it.name}:${it.version}")
 		}
 	}
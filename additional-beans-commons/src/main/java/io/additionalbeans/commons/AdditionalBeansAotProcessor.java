@@ -0,0 +1,92 @@
+package io.additionalbeans.commons;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.aot.BeanRegistrationExcludeFilter;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.factory.support.SimpleBeanDefinitionRegistry;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
+import org.springframework.core.annotation.MergedAnnotations;
+
+/**
+ * AOT support for beans registered by {@link AdditionalBeansPostProcessor}.
+ * <p>
+ * Additional beans are created by instance suppliers which can't be generated ahead of
+ * time, they are excluded from AOT processing and registered again at runtime by the
+ * post processor, this processor contributes reflection hints for the classes they are
+ * instantiated from. Those classes are collected from a probe prefix registered by each
+ * post processor too, so prefixes added after the native image is built are covered.
+ *
+ * @author Yanming Zhou
+ */
+class AdditionalBeansAotProcessor implements BeanFactoryInitializationAotProcessor, BeanRegistrationExcludeFilter {
+
+	@Override
+	public boolean isExcludedFromAotProcessing(RegisteredBean registeredBean) {
+		return isAdditionalBean(registeredBean.getMergedBeanDefinition());
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+		Set<Class<?>> reflectiveTypes = new LinkedHashSet<>();
+		Set<Class<?>> bindableTypes = new LinkedHashSet<>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			collectTypes(beanFactory.getMergedBeanDefinition(beanName), reflectiveTypes, bindableTypes);
+		}
+		for (AdditionalBeansPostProcessor<?, ?> processor : beanFactory
+			.getBeansOfType(AdditionalBeansPostProcessor.class, false, false)
+			.values()) {
+			SimpleBeanDefinitionRegistry registry = new SimpleBeanDefinitionRegistry() {
+
+				// registrations may depend on beans of the application, e.g. auto-configurations
+				@Override
+				public boolean containsBeanDefinition(String beanName) {
+					return super.containsBeanDefinition(beanName) || beanFactory.containsBeanDefinition(beanName);
+				}
+
+			};
+			processor.registerAotProbe(registry);
+			for (String beanName : registry.getBeanDefinitionNames()) {
+				collectTypes(registry.getBeanDefinition(beanName), reflectiveTypes, bindableTypes);
+			}
+		}
+		if (reflectiveTypes.isEmpty()) {
+			return null;
+		}
+		return (generationContext, beanFactoryInitializationCode) -> {
+			RuntimeHints hints = generationContext.getRuntimeHints();
+			reflectiveTypes.forEach((type) -> hints.reflection()
+				.registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+						MemberCategory.INVOKE_DECLARED_METHODS));
+			BindableRuntimeHintsRegistrar.forTypes(bindableTypes).registerHints(hints);
+		};
+	}
+
+	private static void collectTypes(BeanDefinition bd, Set<Class<?>> reflectiveTypes, Set<Class<?>> bindableTypes) {
+		if (isAdditionalBean(bd) && bd instanceof RootBeanDefinition rbd) {
+			Class<?> beanClass = rbd.hasBeanClass() ? rbd.getBeanClass() : rbd.getTargetType();
+			if (beanClass == null || beanClass.isInterface()) {
+				return;
+			}
+			if (MergedAnnotations.from(beanClass).isPresent(ConfigurationProperties.class)) {
+				bindableTypes.add(beanClass);
+			}
+			reflectiveTypes.add(beanClass);
+		}
+	}
+
+	private static boolean isAdditionalBean(BeanDefinition bd) {
+		return bd.hasAttribute(AdditionalBeansPostProcessor.PREFIX_ATTRIBUTE);
+	}
+
+}
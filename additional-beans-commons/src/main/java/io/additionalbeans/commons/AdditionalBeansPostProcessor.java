@@ -1,19 +1,38 @@
 package io.additionalbeans.commons;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
@@ -22,30 +41,70 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.BindException;
 import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.PropertySourcesPlaceholdersResolver;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
 import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Conventions;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * @author Yanming Zhou
  */
 public abstract class AdditionalBeansPostProcessor<CP, CD>
-		implements BeanDefinitionRegistryPostProcessor, BeanPostProcessor, ApplicationContextAware, InitializingBean {
+		implements BeanDefinitionRegistryPostProcessor, BeanPostProcessor, ApplicationContextAware, InitializingBean,
+		SmartInitializingSingleton, AdditionalBeansRegistry {
 
-	private static final String KEY_ADDITIONAL_PREFIXES_PATTERN = "additional.%s.prefixes";
+	/**
+	 * Bean definition attribute holding the prefix of an additional bean.
+	 */
+	public static final String PREFIX_ATTRIBUTE = Conventions
+		.getQualifiedAttributeName(AdditionalBeansPostProcessor.class, "prefix");
+
+	private static final String KEY_ADDITIONAL_PATTERN = "additional.%s.%s";
+
+	private static final String AOT_PROBE_PREFIX = "aotProbe";
+
+	private static final Duration DEFAULT_PARALLEL_BOOTSTRAP_TIMEOUT = Duration.ofSeconds(60);
+
+	private static final Map<Class<?>, Constructor<?>[]> constructorsCache = new ConcurrentReferenceHashMap<>();
+
+	private static final Map<Class<?>, Map<String, Method>> factoryMethodsCache = new ConcurrentReferenceHashMap<>();
+
+	private static final Map<Executable, MethodHandle> invokersCache = new ConcurrentReferenceHashMap<>();
+
+	// time spent in nested creations and bindings, subtracted from the enclosing one
+	private static final ThreadLocal<Deque<long[]>> nestedTimes = ThreadLocal.withInitial(ArrayDeque::new);
+
+	private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
 
 	protected ApplicationContext applicationContext;
 
 	protected Environment environment;
 
-	protected Binder binder;
+	protected volatile Binder binder;
 
-	protected List<String> prefixes = Collections.emptyList();
+	private volatile PrefixedConfigurationPropertySource.Snapshot indexedPropertySources;
+
+	protected List<String> prefixes = new CopyOnWriteArrayList<>();
 
 	protected final Class<CP> configurationPropertiesClass;
 
@@ -53,6 +112,18 @@ public abstract class AdditionalBeansPostProcessor<CP, CD>
 
 	protected final String defaultConfigurationPropertiesPrefix;
 
+	private final Map<Executable, ParameterResolver[]> resolutionPlans = new ConcurrentHashMap<>();
+
+	private final Map<String, Set<String>> beanNames = new ConcurrentHashMap<>();
+
+	private final Map<String, Duration> creationTimes = new ConcurrentHashMap<>();
+
+	private final Map<String, Collection<String>> referencedPrefixes = new ConcurrentHashMap<>();
+
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+	private BeanDefinitionRegistry registry;
+
 	@SuppressWarnings("unchecked")
 	protected AdditionalBeansPostProcessor() {
 		ResolvableType resolvableType = ResolvableType.forClass(getClass()).as(AdditionalBeansPostProcessor.class);
@@ -73,20 +144,71 @@ public abstract class AdditionalBeansPostProcessor<CP, CD>
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
 		this.applicationContext = applicationContext;
+		if (applicationContext instanceof ConfigurableApplicationContext configurableApplicationContext) {
+			this.applicationStartup = configurableApplicationContext.getApplicationStartup();
+		}
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
 	public void afterPropertiesSet() {
 		this.environment = this.applicationContext.getEnvironment();
 		this.binder = Binder.get(this.environment);
+		this.prefixes = new CopyOnWriteArrayList<>(bindPrefixes());
+		if (!this.prefixes.isEmpty()) {
+			this.binder = createPrefixedBinder();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<String> bindPrefixes() {
 		try {
-			this.prefixes = this.binder.bindOrCreate(configurationKeyForPrefixes(), List.class);
+			return Binder.get(this.environment).bindOrCreate(configurationKeyForPrefixes(), List.class);
 		}
-		catch (BindException ignored) {
+		catch (BindException ex) {
+			return Collections.emptyList();
 		}
 	}
 
+	/**
+	 * Return the roots of configuration properties bound to additional beans, e.g.
+	 * {@code spring.datasource}, the corresponding roots of each prefix are derived by
+	 * replacing {@code spring} with the prefix.
+	 * @return the configuration properties roots
+	 */
+	protected Set<String> getConfigurationPropertiesRoots() {
+		return Set.of(this.defaultConfigurationPropertiesPrefix);
+	}
+
+	private Binder createPrefixedBinder() {
+		Set<ConfigurationPropertyName> roots = new LinkedHashSet<>();
+		roots.add(ConfigurationPropertyName.of(configurationKeyForPrefixes()).getParent());
+		for (String root : getConfigurationPropertiesRoots()) {
+			roots.add(ConfigurationPropertyName.of(root));
+			for (String prefix : this.prefixes) {
+				roots.add(ConfigurationPropertyName.of(root.replace("spring", prefix)));
+			}
+		}
+		MutablePropertySources propertySources = ((ConfigurableEnvironment) this.environment).getPropertySources();
+		this.indexedPropertySources = new PrefixedConfigurationPropertySource.Snapshot(propertySources);
+		return new Binder(
+				PrefixedConfigurationPropertySource.index(ConfigurationPropertySources.get(this.environment), roots),
+				new PropertySourcesPlaceholdersResolver(this.environment));
+	}
+
+	/**
+	 * Return the binder, indexing properties again if property sources changed since they
+	 * were indexed, so beans created later, e.g. lazy beans, are bound to current values.
+	 * @return the binder
+	 */
+	private Binder currentBinder() {
+		PrefixedConfigurationPropertySource.Snapshot indexed = this.indexedPropertySources;
+		if (indexed != null
+				&& !indexed.isCurrent(((ConfigurableEnvironment) this.environment).getPropertySources())) {
+			this.binder = createPrefixedBinder();
+		}
+		return this.binder;
+	}
+
 	@Override
 	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
 		if (this.prefixes.isEmpty()) {
@@ -97,7 +219,7 @@ public abstract class AdditionalBeansPostProcessor<CP, CD>
 			if (beanName.endsWith(suffix)) {
 				String prefix = beanName.substring(0, beanName.length() - suffix.length());
 				if (this.prefixes.contains(prefix)) {
-					this.binder.bind(this.defaultConfigurationPropertiesPrefix.replace("spring", prefix),
+					bind(prefix, beanName, this.defaultConfigurationPropertiesPrefix.replace("spring", prefix),
 							Bindable.ofInstance(bean));
 				}
 			}
@@ -105,17 +227,260 @@ public abstract class AdditionalBeansPostProcessor<CP, CD>
 		return bean;
 	}
 
+	/**
+	 * Bind properties to the bean of the given prefix, the binding time is accounted to
+	 * the creation time of the bean and excluded from the creation time of any bean being
+	 * created on the same thread.
+	 * @param prefix the prefix
+	 * @param beanName the name of the bean
+	 * @param name the configuration property name to bind
+	 * @param target the target bindable
+	 */
+	protected void bind(String prefix, String beanName, String name, Bindable<?> target) {
+		StartupStep step = this.applicationStartup.start(configurationKeyFor("bind"))
+			.tag("prefix", prefix)
+			.tag("beanName", beanName)
+			.tag("name", name);
+		try {
+			Binder binder = currentBinder();
+			timed(beanName, () -> binder.bind(name, target));
+		}
+		finally {
+			step.end();
+		}
+	}
+
+	/**
+	 * Return the time spent creating and binding additional beans, keyed by bean name.
+	 * The time spent creating other beans meanwhile, e.g. dependencies, is excluded. Beans
+	 * with a default constructor are instantiated by the container, only their binding
+	 * time is accounted.
+	 * @return the creation times
+	 */
+	public Map<String, Duration> getCreationTimes() {
+		return Collections.unmodifiableMap(this.creationTimes);
+	}
+
 	protected String configurationKeyForPrefixes() {
+		return configurationKeyFor("prefixes");
+	}
+
+	protected String configurationKeyFor(String key) {
+		return KEY_ADDITIONAL_PATTERN.formatted(getModule(), key);
+	}
+
+	/**
+	 * Return the module name, derived from the package name of the post processor.
+	 * @return the module name
+	 */
+	@Override
+	public String getModule() {
 		String module = getClass().getPackageName();
-		module = module.substring(module.lastIndexOf('.') + 1);
-		return KEY_ADDITIONAL_PREFIXES_PATTERN.formatted(module);
+		return module.substring(module.lastIndexOf('.') + 1);
+	}
+
+	@Override
+	public List<String> getPrefixes() {
+		return Collections.unmodifiableList(this.prefixes);
+	}
+
+	/**
+	 * Get the module option for the given prefix, {@code additional.<module>.<prefix>.<key>}
+	 * takes precedence over {@code additional.<module>.<key>}.
+	 * @param prefix the prefix
+	 * @param key the option key
+	 * @param targetType the expected type of the option value
+	 * @param defaultValue the default value to return if the option is absent
+	 * @param <T> the type of the option value
+	 * @return the option value
+	 */
+	protected <T> T getProperty(String prefix, String key, Class<T> targetType, T defaultValue) {
+		return this.environment.getProperty(configurationKeyFor(prefix + '.' + key), targetType,
+				this.environment.getProperty(configurationKeyFor(key), targetType, defaultValue));
+	}
+
+	/**
+	 * Bind the module option for the given prefix like
+	 * {@link #getProperty(String, String, Class, Object)}, with relaxed binding and
+	 * conversion of values such as durations and enums.
+	 * @param prefix the prefix
+	 * @param key the option key
+	 * @param targetType the expected type of the option value
+	 * @param defaultValue the default value to return if the option is absent
+	 * @param <T> the type of the option value
+	 * @return the option value
+	 */
+	protected <T> T bindProperty(String prefix, String key, Class<T> targetType, T defaultValue) {
+		Binder binder = currentBinder();
+		return binder.bind(configurationKeyFor(prefix + '.' + key), targetType)
+			.orElseGet(() -> binder.bind(configurationKeyFor(key), targetType).orElse(defaultValue));
+	}
+
+	/**
+	 * Whether beans of the given prefix are registered as lazy-init. They are not
+	 * proxied, so they are still created at startup if an eagerly created bean references
+	 * them, unless the injection point is annotated with
+	 * {@link org.springframework.context.annotation.Lazy @Lazy}.
+	 * @param prefix the prefix
+	 * @return whether the prefix is lazy
+	 */
+	protected boolean isLazy(String prefix) {
+		return getProperty(prefix, "lazy", Boolean.class, false);
+	}
+
+	protected boolean isParallelBootstrap(String prefix) {
+		return getProperty(prefix, "parallel-bootstrap", Boolean.class, false);
+	}
+
+	/**
+	 * Return the names of beans registered for the given prefix, in registration order.
+	 * @param prefix the prefix
+	 * @return the bean names
+	 */
+	public Set<String> getBeanNames(String prefix) {
+		return this.beanNames.getOrDefault(prefix, Collections.emptySet());
 	}
 
 	@Override
 	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+		this.registry = registry;
 		for (String prefix : this.prefixes) {
-			registerConfigurationProperties(registry, prefix);
-			registerBeanDefinitions(registry, prefix);
+			registerPrefix(registry, prefix);
+		}
+	}
+
+	private void registerPrefix(BeanDefinitionRegistry registry, String prefix) {
+		registerConfigurationProperties(registry, prefix);
+		registerBeanDefinitions(registry, prefix);
+	}
+
+	/**
+	 * Register beans of the given probe prefix ahead of time, so that the types
+	 * additional beans are reflectively instantiated from are known regardless of the
+	 * prefixes configured at build time. Subclasses selecting types by options of a prefix,
+	 * e.g. a client type, should register the alternatives too.
+	 * @param registry the registry holding probe beans only
+	 * @param prefix the probe prefix
+	 * @see AdditionalBeansAotProcessor
+	 */
+	protected void registerAotProbeBeanDefinitions(BeanDefinitionRegistry registry, String prefix) {
+		registerPrefix(registry, prefix);
+	}
+
+	void registerAotProbe(BeanDefinitionRegistry registry) {
+		try {
+			registerAotProbeBeanDefinitions(registry, AOT_PROBE_PREFIX);
+		}
+		finally {
+			this.beanNames.remove(AOT_PROBE_PREFIX);
+		}
+	}
+
+	@Override
+	public synchronized void addPrefix(String prefix) {
+		Assert.state(this.registry != null, "Bean definitions are not registered yet");
+		if (this.prefixes.contains(prefix)) {
+			return;
+		}
+		this.prefixes.add(prefix);
+		// pick up properties of the prefix added to the environment since startup
+		this.binder = createPrefixedBinder();
+		try {
+			registerPrefix(this.registry, prefix);
+			if (!isLazy(prefix)) {
+				getBeanNames(prefix).forEach(this.applicationContext::getBean);
+			}
+		}
+		catch (RuntimeException ex) {
+			removePrefix(prefix);
+			throw ex;
+		}
+	}
+
+	@Override
+	public synchronized void removePrefix(String prefix) {
+		Assert.state(this.registry != null, "Bean definitions are not registered yet");
+		assertNotReferenced(prefix);
+		if (!this.prefixes.remove(prefix)) {
+			return;
+		}
+		List<String> names = new ArrayList<>(getBeanNames(prefix));
+		Collections.reverse(names);
+		for (String name : names) {
+			if (this.registry.containsBeanDefinition(name)) {
+				for (String alias : this.registry.getAliases(name)) {
+					this.registry.removeAlias(alias);
+				}
+				// the singleton is destroyed with its definition
+				this.registry.removeBeanDefinition(name);
+			}
+			this.creationTimes.remove(name);
+		}
+		this.beanNames.remove(prefix);
+		this.binder = createPrefixedBinder();
+	}
+
+	private void assertNotReferenced(String prefix) {
+		this.referencedPrefixes.forEach((beanName, prefixes) -> Assert.state(!prefixes.contains(prefix),
+				() -> "Prefix '%s' is referenced by bean '%s' and can't be removed".formatted(prefix, beanName)));
+	}
+
+	@Override
+	public synchronized void refreshPrefixes() {
+		List<String> prefixes = bindPrefixes();
+		List<String> removed = this.prefixes.stream().filter((prefix) -> !prefixes.contains(prefix)).toList();
+		// nothing is changed if any of them can't be removed
+		removed.forEach(this::assertNotReferenced);
+		removed.forEach(this::removePrefix);
+		for (String prefix : prefixes) {
+			addPrefix(prefix);
+		}
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		List<String> parallelPrefixes = this.prefixes.stream()
+			.filter((prefix) -> !isLazy(prefix) && isParallelBootstrap(prefix))
+			.toList();
+		if (parallelPrefixes.isEmpty()) {
+			return;
+		}
+		Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+		// closed once tasks are submitted, running tasks are not interrupted
+		try (SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(
+				configurationKeyFor("bootstrap").replace('.', '-') + '-')) {
+			executor.setVirtualThreads(Threading.VIRTUAL.isActive(this.environment));
+			// bootstrap not completed within the timeout should not prevent shutdown
+			executor.setDaemon(true);
+			for (String prefix : parallelPrefixes) {
+				futures.put(prefix, CompletableFuture
+					.runAsync(() -> getBeanNames(prefix).forEach(this.applicationContext::getBean), executor));
+			}
+		}
+		Duration timeout = this.binder.bind(configurationKeyFor("parallel-bootstrap-timeout"), Duration.class)
+			.orElse(DEFAULT_PARALLEL_BOOTSTRAP_TIMEOUT);
+		long deadline = System.nanoTime() + timeout.toNanos();
+		Map<String, Throwable> failures = new LinkedHashMap<>();
+		futures.forEach((prefix, future) -> {
+			try {
+				future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			}
+			catch (ExecutionException ex) {
+				failures.put(prefix, ex.getCause());
+			}
+			catch (TimeoutException ex) {
+				failures.put(prefix, new TimeoutException("Bootstrap not completed within " + timeout));
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				failures.put(prefix, ex);
+			}
+		});
+		if (!failures.isEmpty()) {
+			IllegalStateException ex = new IllegalStateException(
+					"Failed to bootstrap prefixes " + failures.keySet() + " of " + configurationKeyForPrefixes());
+			failures.values().forEach(ex::addSuppressed);
+			throw ex;
 		}
 	}
 
@@ -133,17 +498,11 @@ public abstract class AdditionalBeansPostProcessor<CP, CD>
 
 	private RootBeanDefinition buildConnectionDetailsBeanDefinition(String propertiesConnectionDetailsClassName,
 			String prefix) {
+		Class<?> clazz = ClassUtils.resolveClassName(propertiesConnectionDetailsClassName,
+				this.connectionDetailsClass.getClassLoader());
 		RootBeanDefinition beanDefinition = new RootBeanDefinition();
-		beanDefinition.setInstanceSupplier(() -> {
-			try {
-				Class<?> clazz = ClassUtils.forName(propertiesConnectionDetailsClassName,
-						this.connectionDetailsClass.getClassLoader());
-				return instantiateBean(clazz, prefix);
-			}
-			catch (ClassNotFoundException ex) {
-				throw new RuntimeException(ex);
-			}
-		});
+		beanDefinition.setTargetType(clazz);
+		beanDefinition.setInstanceSupplier(() -> instantiateBean(clazz, prefix));
 		return beanDefinition;
 	}
 
@@ -151,12 +510,13 @@ public abstract class AdditionalBeansPostProcessor<CP, CD>
 		String beanName = beanNameFor(beanClass, prefix);
 		if (!registry.containsBeanDefinition(beanName)) {
 			RootBeanDefinition bd = new RootBeanDefinition(beanClass);
-			bd.setDefaultCandidate(false);
-			Constructor<?>[] constructors = beanClass.getDeclaredConstructors();
+			Constructor<?>[] constructors = constructorsFor(beanClass);
+			// constructors taking prefixed dependencies are invoked by the processor, which
+			// accounts their creation time, other beans are instantiated by the container
 			if (constructors.length == 1 && constructors[0].getParameterCount() > 0) {
 				bd.setInstanceSupplier(() -> instantiateBean(beanClass, prefix));
 			}
-			registry.registerBeanDefinition(beanName, bd);
+			registerPrefixedBeanDefinition(registry, beanName, beanClass, prefix, bd);
 		}
 		return beanName;
 	}
@@ -195,11 +555,84 @@ public abstract class AdditionalBeansPostProcessor<CP, CD>
 		String beanName = beanNameFor(beanClass, prefix);
 		if (!registry.containsBeanDefinition(beanName)) {
 			RootBeanDefinition bd = beanDefinitionSupplier.get();
-			bd.setDefaultCandidate(false);
 			if (bd.getTargetType() == null) {
 				bd.setTargetType(beanClass);
 			}
-			registry.registerBeanDefinition(beanName, bd);
+			registerPrefixedBeanDefinition(registry, beanName, beanClass, prefix, bd);
+		}
+		return beanName;
+	}
+
+	private void registerPrefixedBeanDefinition(BeanDefinitionRegistry registry, String beanName, Class<?> beanClass,
+			String prefix, RootBeanDefinition bd) {
+		bd.setDefaultCandidate(false);
+		bd.setAttribute(PREFIX_ATTRIBUTE, prefix);
+		Supplier<?> instanceSupplier = bd.getInstanceSupplier();
+		if (instanceSupplier != null) {
+			bd.setInstanceSupplier(() -> instantiate(beanName, prefix, instanceSupplier));
+		}
+		// beans of a parallel bootstrapped prefix are created by afterSingletonsInstantiated()
+		bd.setLazyInit(isLazy(prefix) || (isParallelBootstrap(prefix)
+				&& !SmartInitializingSingleton.class.isAssignableFrom(beanClass)));
+		registry.registerBeanDefinition(beanName, bd);
+		this.beanNames.computeIfAbsent(prefix, (key) -> new CopyOnWriteArraySet<>()).add(beanName);
+	}
+
+	/**
+	 * Register a bean spanning prefixes of the module, e.g. a routing data source, it is
+	 * not a default candidate and is excluded from AOT processing like prefixed beans,
+	 * its {@link #PREFIX_ATTRIBUTE} is empty.
+	 * @param registry the bean definition registry
+	 * @param beanName the name of the bean
+	 * @param bd the bean definition
+	 */
+	protected void registerModuleBeanDefinition(BeanDefinitionRegistry registry, String beanName,
+			RootBeanDefinition bd) {
+		registerModuleBeanDefinition(registry, beanName, bd, Collections.emptyList());
+	}
+
+	/**
+	 * Register a bean spanning prefixes of the module, which is built over beans of the
+	 * referenced prefixes, e.g. shards of a sharded client, those prefixes can't be
+	 * removed at runtime.
+	 * @param registry the bean definition registry
+	 * @param beanName the name of the bean
+	 * @param bd the bean definition
+	 * @param referencedPrefixes the prefixes referenced by the bean
+	 * @see AdditionalBeansRegistry#removePrefix(String)
+	 */
+	protected void registerModuleBeanDefinition(BeanDefinitionRegistry registry, String beanName,
+			RootBeanDefinition bd, Collection<String> referencedPrefixes) {
+		bd.setDefaultCandidate(false);
+		bd.setAttribute(PREFIX_ATTRIBUTE, "");
+		registry.registerBeanDefinition(beanName, bd);
+		if (!referencedPrefixes.isEmpty()) {
+			this.referencedPrefixes.put(beanName, List.copyOf(referencedPrefixes));
+		}
+	}
+
+	/**
+	 * Register a {@link SimpleAsyncTaskExecutor} of the given feature spanning prefixes of
+	 * the module unless a bean of that name is defined already, its concurrency is limited
+	 * by {@code additional.<module>.<feature>.concurrency-limit}, and it runs virtual
+	 * threads if they are enabled.
+	 * @param registry the bean definition registry
+	 * @param feature the feature, e.g. {@code sharding}
+	 * @return the name of the executor bean
+	 */
+	protected String registerModuleTaskExecutor(BeanDefinitionRegistry registry, String feature) {
+		String beanName = getModule() + StringUtils.capitalize(feature) + "TaskExecutor";
+		if (!registry.containsBeanDefinition(beanName)) {
+			int concurrencyLimit = this.binder.bind(configurationKeyFor(feature + ".concurrency-limit"), Integer.class)
+				.orElse(SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+			RootBeanDefinition bd = new RootBeanDefinition(SimpleAsyncTaskExecutor.class, () -> {
+				SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(
+						configurationKeyFor(feature).replace('.', '-') + '-');
+				executor.setVirtualThreads(Threading.VIRTUAL.isActive(this.environment));
+				executor.setConcurrencyLimit(concurrencyLimit);
+				return executor;
+			});
+			registerModuleBeanDefinition(registry, beanName, bd);
 		}
 		return beanName;
 	}
@@ -221,77 +654,167 @@ public abstract class AdditionalBeansPostProcessor<CP, CD>
 		return this.applicationContext.getBeanProvider(beanClass);
 	}
 
-	private Object instantiateBean(Class<?> clazz, String prefix) {
+	private Object instantiate(String beanName, String prefix, Supplier<?> instanceSupplier) {
+		StartupStep step = this.applicationStartup.start(configurationKeyFor("instantiate"))
+			.tag("prefix", prefix)
+			.tag("beanName", beanName);
 		try {
-			Constructor<?> constructor = clazz.getDeclaredConstructors()[0];
-			constructor.setAccessible(true);
-			return constructor.newInstance(resolveParameters(constructor, prefix));
+			return timed(beanName, instanceSupplier);
 		}
-		catch (RuntimeException ex) {
-			throw ex;
+		finally {
+			step.end();
 		}
-		catch (Exception ex) {
-			throw new RuntimeException(ex);
+	}
+
+	private <T> T timed(String beanName, Supplier<T> action) {
+		Deque<long[]> stack = nestedTimes.get();
+		long[] nested = new long[1];
+		stack.push(nested);
+		long start = System.nanoTime();
+		try {
+			return action.get();
 		}
+		finally {
+			long elapsed = System.nanoTime() - start;
+			stack.pop();
+			long[] enclosing = stack.peek();
+			if (enclosing != null) {
+				enclosing[0] += elapsed;
+			}
+			else {
+				nestedTimes.remove();
+			}
+			this.creationTimes.merge(beanName, Duration.ofNanos(elapsed - nested[0]), Duration::plus);
+		}
+	}
+
+	private Object instantiateBean(Class<?> clazz, String prefix) {
+		return invoke(constructorsFor(clazz)[0], null, prefix);
 	}
 
 	@SuppressWarnings("unchecked")
 	private <T> T createBean(String configurationBeanName, String factoryMethodName, String prefix) {
 		Object configuration = this.applicationContext.getBean(configurationBeanName);
+		return (T) invoke(factoryMethodFor(configuration.getClass(), factoryMethodName), configuration, prefix);
+	}
+
+	private Object invoke(Executable executable, Object target, String prefix) {
+		Object[] parameters = resolveParameters(executable, prefix);
 		try {
-			Method factoryMethod = Stream.of(configuration.getClass().getDeclaredMethods())
-				.filter(m -> m.getName().equals(factoryMethodName))
-				.findFirst()
-				.orElseThrow();
-			factoryMethod.setAccessible(true);
-			return (T) factoryMethod.invoke(configuration, resolveParameters(factoryMethod, prefix));
+			return (Object) invokerFor(executable).invokeExact(target, parameters);
 		}
-		catch (RuntimeException ex) {
+		catch (RuntimeException | Error ex) {
 			throw ex;
 		}
-		catch (Exception ex) {
+		catch (Throwable ex) {
 			throw new RuntimeException(ex);
 		}
 	}
 
-	private Object[] resolveParameters(Executable executable, String prefix) {
-		Type[] types = executable.getGenericParameterTypes();
-		Object[] parameters = new Object[executable.getParameterCount()];
-		for (int i = 0; i < types.length; i++) {
-			if (types[i] instanceof Class<?> clz) {
-				if (clz.isInstance(this.applicationContext)) {
-					parameters[i] = this.applicationContext;
-				}
-				else if (clz == Environment.class) {
-					parameters[i] = this.applicationContext.getEnvironment();
-				}
-				else if (clz == SslBundles.class) {
-					parameters[i] = beanProviderOf(SslBundles.class).getIfAvailable();
-				}
-				else if (getSharedTypes().contains(clz)) {
-					parameters[i] = beanProviderOf(clz).getIfAvailable();
+	static Constructor<?>[] constructorsFor(Class<?> clazz) {
+		return constructorsCache.computeIfAbsent(clazz, (c) -> {
+			Constructor<?>[] constructors = c.getDeclaredConstructors();
+			if (constructors.length > 0) {
+				ReflectionUtils.makeAccessible(constructors[0]);
+			}
+			return constructors;
+		});
+	}
+
+	static Method factoryMethodFor(Class<?> clazz, String factoryMethodName) {
+		Map<String, Method> factoryMethods = factoryMethodsCache.computeIfAbsent(clazz, (c) -> {
+			Map<String, Method> methods = new LinkedHashMap<>();
+			for (Method method : c.getDeclaredMethods()) {
+				methods.putIfAbsent(method.getName(), method);
+			}
+			methods.values().forEach(ReflectionUtils::makeAccessible);
+			return methods;
+		});
+		Method factoryMethod = factoryMethods.get(factoryMethodName);
+		Assert.state(factoryMethod != null,
+				() -> "No factory method '" + factoryMethodName + "' found on " + clazz.getName());
+		return factoryMethod;
+	}
+
+	/**
+	 * Adapt the given constructor or factory method to a {@link MethodHandle} of type
+	 * {@code (Object, Object[])Object}, the first argument being the target instance
+	 * which is ignored for constructors and static methods.
+	 * @param executable the constructor or factory method
+	 * @return the cached invoker
+	 */
+	static MethodHandle invokerFor(Executable executable) {
+		return invokersCache.computeIfAbsent(executable, (e) -> {
+			try {
+				MethodHandle handle;
+				if (e instanceof Method method) {
+					handle = LOOKUP.unreflect(method);
+					if (Modifier.isStatic(method.getModifiers())) {
+						handle = MethodHandles.dropArguments(handle, 0, Object.class);
+					}
 				}
 				else {
-					parameters[i] = beanFor(clz, prefix);
+					handle = MethodHandles.dropArguments(LOOKUP.unreflectConstructor((Constructor<?>) e), 0,
+							Object.class);
 				}
-				continue;
+				return handle.asSpreader(Object[].class, e.getParameterCount()).asType(INVOKER_TYPE);
 			}
-			else if (types[i] instanceof ParameterizedType pt) {
-				Type rawType = pt.getRawType();
-				if (rawType instanceof Class<?> clz) {
-					if (clz == ObjectProvider.class) {
-						parameters[i] = beanProviderOf((Class<?>) pt.getActualTypeArguments()[0]);
-					}
-					else {
-						parameters[i] = this.applicationContext.getBean(beanNameFor(clz, prefix));
-					}
-					continue;
-				}
-
+			catch (IllegalAccessException ex) {
+				throw new IllegalStateException("Unable to access " + e, ex);
 			}
-			throw new RuntimeException("Unsupported parameter type: " + types[i]);
+		});
+	}
+
+	private Object[] resolveParameters(Executable executable, String prefix) {
+		ParameterResolver[] resolutionPlan = this.resolutionPlans.computeIfAbsent(executable,
+				this::buildResolutionPlan);
+		Object[] parameters = new Object[resolutionPlan.length];
+		for (int i = 0; i < resolutionPlan.length; i++) {
+			parameters[i] = resolutionPlan[i].resolve(prefix);
 		}
 		return parameters;
 	}
 
+	private ParameterResolver[] buildResolutionPlan(Executable executable) {
+		Type[] types = executable.getGenericParameterTypes();
+		ParameterResolver[] resolutionPlan = new ParameterResolver[types.length];
+		for (int i = 0; i < types.length; i++) {
+			resolutionPlan[i] = buildParameterResolver(types[i]);
+		}
+		return resolutionPlan;
+	}
+
+	private ParameterResolver buildParameterResolver(Type type) {
+		if (type instanceof Class<?> clz) {
+			if (clz.isInstance(this.applicationContext)) {
+				return (prefix) -> this.applicationContext;
+			}
+			if (clz == Environment.class) {
+				return (prefix) -> this.applicationContext.getEnvironment();
+			}
+			if (clz == SslBundles.class || getSharedTypes().contains(clz)) {
+				return (prefix) -> beanProviderOf(clz).getIfAvailable();
+			}
+			return (prefix) -> beanFor(clz, prefix);
+		}
+		if (type instanceof ParameterizedType pt && pt.getRawType() instanceof Class<?> clz) {
+			if (clz == ObjectProvider.class) {
+				ObjectProvider<?> beanProvider = beanProviderOf((Class<?>) pt.getActualTypeArguments()[0]);
+				return (prefix) -> beanProvider;
+			}
+			return (prefix) -> this.applicationContext.getBean(beanNameFor(clz, prefix));
+		}
+		throw new RuntimeException("Unsupported parameter type: " + type);
+	}
+
+	/**
+	 * Resolves a single factory method or constructor argument for a given prefix.
+	 */
+	@FunctionalInterface
+	private interface ParameterResolver {
+
+		Object resolve(String prefix);
+
+	}
+
 }
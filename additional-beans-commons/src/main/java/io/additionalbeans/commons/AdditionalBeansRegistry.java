@@ -0,0 +1,46 @@
+package io.additionalbeans.commons;
+
+import java.util.List;
+
+/**
+ * Registry of prefixes of a module, prefixes can be added and removed at runtime.
+ *
+ * @author Yanming Zhou
+ */
+public interface AdditionalBeansRegistry {
+
+	/**
+	 * Return the module name, e.g. {@code jdbc}.
+	 * @return the module name
+	 */
+	String getModule();
+
+	/**
+	 * Return the registered prefixes.
+	 * @return the prefixes
+	 */
+	List<String> getPrefixes();
+
+	/**
+	 * Register beans of the given prefix, configuration properties of the prefix are
+	 * read from the current environment, beans are created unless the prefix is lazy.
+	 * @param prefix the prefix to add
+	 */
+	void addPrefix(String prefix);
+
+	/**
+	 * Remove beans of the given prefix in reverse registration order, destroying them,
+	 * e.g. closing connection pools.
+	 * @param prefix the prefix to remove
+	 * @throws IllegalStateException if the prefix is referenced by module beans, e.g.
+	 * shards of a sharded client
+	 */
+	void removePrefix(String prefix);
+
+	/**
+	 * Rebind {@code additional.<module>.prefixes} from the current environment, then
+	 * remove absent prefixes and add new prefixes.
+	 */
+	void refreshPrefixes();
+
+}
@@ -0,0 +1,125 @@
+package io.additionalbeans.commons;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+/**
+ * An immutable consistent hash ring, each node is placed on the ring as a number of
+ * virtual nodes derived from its name, so adding or removing a node only remaps the keys
+ * of that node.
+ *
+ * @param <T> the type of the nodes
+ * @author Yanming Zhou
+ */
+public class ConsistentHashRing<T> {
+
+	public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+	private final Map<String, T> nodes;
+
+	private final long[] points;
+
+	private final String[] owners;
+
+	public ConsistentHashRing(Map<String, T> nodes) {
+		this(nodes, DEFAULT_VIRTUAL_NODES);
+	}
+
+	public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+		Assert.notEmpty(nodes, "nodes shouldn't be empty");
+		Assert.isTrue(virtualNodes > 0, "virtualNodes should be positive");
+		this.nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+		int size = nodes.size() * virtualNodes;
+		long[][] entries = new long[size][];
+		List<String> names = List.copyOf(nodes.keySet());
+		for (int i = 0; i < names.size(); i++) {
+			for (int j = 0; j < virtualNodes; j++) {
+				entries[i * virtualNodes + j] = new long[] { hash(names.get(i) + '#' + j), i };
+			}
+		}
+		Arrays.sort(entries, (x, y) -> Long.compare(x[0], y[0]));
+		this.points = new long[size];
+		this.owners = new String[size];
+		for (int i = 0; i < size; i++) {
+			this.points[i] = entries[i][0];
+			this.owners[i] = names.get((int) entries[i][1]);
+		}
+	}
+
+	public Map<String, T> getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Return the name of the node owning the given key.
+	 * @param key the key
+	 * @return the node name
+	 */
+	public String nodeNameFor(byte[] key) {
+		int index = Arrays.binarySearch(this.points, hash(key));
+		if (index < 0) {
+			index = -index - 1;
+			if (index == this.points.length) {
+				index = 0;
+			}
+		}
+		return this.owners[index];
+	}
+
+	public String nodeNameFor(String key) {
+		return nodeNameFor(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public T nodeFor(byte[] key) {
+		return this.nodes.get(nodeNameFor(key));
+	}
+
+	public T nodeFor(String key) {
+		return this.nodes.get(nodeNameFor(key));
+	}
+
+	/**
+	 * Group the given keys by the name of the node owning them, preserving the order of
+	 * keys in each group.
+	 * @param keys the keys
+	 * @param serializer the function serializing a key to bytes
+	 * @param <K> the type of the keys
+	 * @return the keys grouped by node name
+	 */
+	public <K> Map<String, List<K>> partition(Collection<K> keys, Function<? super K, byte[]> serializer) {
+		Map<String, List<K>> partitions = new LinkedHashMap<>();
+		for (K key : keys) {
+			partitions.computeIfAbsent(nodeNameFor(serializer.apply(key)), (name) -> new ArrayList<>()).add(key);
+		}
+		return partitions;
+	}
+
+	static long hash(String key) {
+		return hash(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static long hash(byte[] key) {
+		// FNV-1a followed by the MurmurHash3 finalizer for avalanche
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : key) {
+			hash ^= b;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+}
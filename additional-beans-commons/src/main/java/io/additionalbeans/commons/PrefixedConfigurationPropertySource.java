@@ -0,0 +1,124 @@
+package io.additionalbeans.commons;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.properties.source.ConfigurationProperty;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.IterableConfigurationPropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+
+/**
+ * {@link IterableConfigurationPropertySource} holding the names of the properties under
+ * given roots, it's used to bind additional beans without iterating all properties of
+ * the underlying source for every bind. Values are read from the underlying source, names
+ * are indexed again once the property sources change, see {@link Snapshot}.
+ *
+ * @author Yanming Zhou
+ */
+class PrefixedConfigurationPropertySource implements IterableConfigurationPropertySource {
+
+	private final Set<ConfigurationPropertyName> names;
+
+	private final IterableConfigurationPropertySource source;
+
+	PrefixedConfigurationPropertySource(Set<ConfigurationPropertyName> names,
+			IterableConfigurationPropertySource source) {
+		this.names = names;
+		this.source = source;
+	}
+
+	@Override
+	public Stream<ConfigurationPropertyName> stream() {
+		return this.names.stream();
+	}
+
+	@Override
+	public ConfigurationProperty getConfigurationProperty(ConfigurationPropertyName name) {
+		return this.names.contains(name) ? this.source.getConfigurationProperty(name) : null;
+	}
+
+	@Override
+	public Object getUnderlyingSource() {
+		return this.source.getUnderlyingSource();
+	}
+
+	/**
+	 * Index the given sources, iterable sources are replaced by an index of the properties
+	 * under the given roots in place, to preserve precedence, sources without such
+	 * properties are dropped, other sources are kept as is.
+	 * @param sources the sources to index
+	 * @param roots the roots of the properties to keep
+	 * @return the indexed sources
+	 */
+	static List<ConfigurationPropertySource> index(Iterable<ConfigurationPropertySource> sources,
+			Collection<ConfigurationPropertyName> roots) {
+		List<ConfigurationPropertySource> indexed = new ArrayList<>();
+		for (ConfigurationPropertySource source : sources) {
+			if (source instanceof IterableConfigurationPropertySource iterable) {
+				Set<ConfigurationPropertyName> names = new LinkedHashSet<>();
+				iterable.stream().filter((name) -> isUnderAny(name, roots)).forEach(names::add);
+				if (!names.isEmpty()) {
+					indexed.add(new PrefixedConfigurationPropertySource(names, iterable));
+				}
+			}
+			else {
+				indexed.add(source);
+			}
+		}
+		return indexed;
+	}
+
+	private static boolean isUnderAny(ConfigurationPropertyName name, Collection<ConfigurationPropertyName> roots) {
+		for (ConfigurationPropertyName root : roots) {
+			if (root.equals(name) || root.isAncestorOf(name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Identities of property sources and sizes of map based ones, taken when they are
+	 * indexed. It tells sources added, removed or replaced since, e.g. by a refresh of
+	 * Spring Cloud, and properties added to or removed from a map based source in place,
+	 * without iterating property names. A property renamed in place is not noticed.
+	 */
+	static final class Snapshot {
+
+		private final List<PropertySource<?>> sources = new ArrayList<>();
+
+		private final List<Integer> sizes = new ArrayList<>();
+
+		Snapshot(Iterable<PropertySource<?>> propertySources) {
+			for (PropertySource<?> propertySource : propertySources) {
+				this.sources.add(propertySource);
+				this.sizes.add(sizeOf(propertySource));
+			}
+		}
+
+		boolean isCurrent(Iterable<PropertySource<?>> propertySources) {
+			int i = 0;
+			for (PropertySource<?> propertySource : propertySources) {
+				if (i >= this.sources.size() || this.sources.get(i) != propertySource
+						|| this.sizes.get(i) != sizeOf(propertySource)) {
+					return false;
+				}
+				i++;
+			}
+			return i == this.sources.size();
+		}
+
+		private static int sizeOf(PropertySource<?> propertySource) {
+			return (propertySource instanceof MapPropertySource map) ? map.getSource().size() : -1;
+		}
+
+	}
+
+}
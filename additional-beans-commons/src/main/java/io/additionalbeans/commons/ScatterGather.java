@@ -0,0 +1,56 @@
+package io.additionalbeans.commons;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+
+/**
+ * Executes an operation on named nodes, e.g. shards of a sharded client, in parallel and
+ * gathers the results.
+ *
+ * @author Yanming Zhou
+ */
+public final class ScatterGather {
+
+	private ScatterGather() {
+	}
+
+	/**
+	 * Execute the given operation on every node in parallel, remaining operations are
+	 * cancelled if any operation fails.
+	 * @param nodes the nodes keyed by name
+	 * @param operation the operation taking the name and the node
+	 * @param executor the executor running the operations
+	 * @param <N> the type of the nodes
+	 * @param <T> the type of the result
+	 * @return the results keyed by name, in node order
+	 */
+	public static <N, T> Map<String, T> execute(Map<String, N> nodes, BiFunction<String, ? super N, T> operation,
+			Executor executor) {
+		Map<String, T> results = new LinkedHashMap<>();
+		if (nodes.size() == 1) {
+			// no need to hop threads for a single node
+			Map.Entry<String, N> node = nodes.entrySet().iterator().next();
+			results.put(node.getKey(), operation.apply(node.getKey(), node.getValue()));
+			return results;
+		}
+		Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+		nodes.forEach((name, node) -> futures.put(name,
+				CompletableFuture.supplyAsync(() -> operation.apply(name, node), executor)));
+		try {
+			futures.forEach((name, future) -> results.put(name, future.join()));
+		}
+		catch (CompletionException ex) {
+			futures.values().forEach((future) -> future.cancel(true));
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+		return results;
+	}
+
+}
@@ -1,17 +1,34 @@
 package io.additionalbeans.commons;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
 import org.junit.jupiter.api.Test;
 
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.aot.test.generate.TestGenerationContext;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationCode;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.util.Assert;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
 /**
  * @author Yanming Zhou
  */
 class AdditionalBeansPostProcessorTests {
 
+	private static final ApplicationContextRunner runner = new ApplicationContextRunner()
+		.withBean(BootstrapPostProcessor.class)
+		.withPropertyValues("additional.commons.prefixes=foo,bar", "additional.commons.parallel-bootstrap=true");
+
 	AdditionalBeansPostProcessor<TestProperties, TestConnectionDetails> processor = new AdditionalBeansPostProcessor<>() {
 
 		@Override
@@ -25,6 +42,82 @@ class AdditionalBeansPostProcessorTests {
 		assertThat(this.processor.configurationKeyForPrefixes()).isEqualTo("additional.commons.prefixes");
 	}
 
+	@Test
+	void testFactoryMethodIsCachedPerClass() {
+		Method factoryMethod = AdditionalBeansPostProcessor.factoryMethodFor(TestConfiguration.class, "testBean");
+		assertThat(factoryMethod.getName()).isEqualTo("testBean");
+		assertThat(factoryMethod.canAccess(new TestConfiguration())).isTrue();
+		assertThat(AdditionalBeansPostProcessor.factoryMethodFor(TestConfiguration.class, "testBean"))
+			.isSameAs(factoryMethod);
+	}
+
+	@Test
+	void testConstructorsAreCachedPerClass() {
+		assertThat(AdditionalBeansPostProcessor.constructorsFor(TestConfiguration.class))
+			.isSameAs(AdditionalBeansPostProcessor.constructorsFor(TestConfiguration.class))
+			.hasSize(1);
+	}
+
+	@Test
+	void testInvokerFor() throws Throwable {
+		Method factoryMethod = AdditionalBeansPostProcessor.factoryMethodFor(TestConfiguration.class, "testBean");
+		Object bean = AdditionalBeansPostProcessor.invokerFor(factoryMethod)
+			.invokeExact((Object) new TestConfiguration(), new Object[0]);
+		assertThat(bean).isInstanceOf(TestProperties.class);
+		Object configuration = AdditionalBeansPostProcessor
+			.invokerFor(AdditionalBeansPostProcessor.constructorsFor(TestConfiguration.class)[0])
+			.invokeExact((Object) null, new Object[0]);
+		assertThat(configuration).isInstanceOf(TestConfiguration.class);
+	}
+
+	@Test
+	void testParallelBootstrapAggregatesFailures() {
+		runner.withPropertyValues("additional.commons.foo.fail=true", "additional.commons.bar.fail=true")
+			.run((ctx) -> assertThat(ctx).getFailure()
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessage("Failed to bootstrap prefixes [foo, bar] of additional.commons.prefixes")
+				.satisfies((ex) -> assertThat(ex.getSuppressed()).hasSize(2)
+					.allSatisfy((suppressed) -> assertThat(suppressed).isInstanceOf(BeanCreationException.class))));
+	}
+
+	@Test
+	void testParallelBootstrapTimeout() {
+		runner.withPropertyValues("additional.commons.parallel-bootstrap-timeout=100ms",
+				"additional.commons.foo.delay=2s")
+			.run((ctx) -> assertThat(ctx).getFailure()
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("[foo]")
+				.satisfies((ex) -> assertThat(ex.getSuppressed()).singleElement()
+					.isInstanceOf(TimeoutException.class)));
+	}
+
+	@Test
+	void testParallelBootstrap() {
+		runner.run((ctx) -> {
+			assertThat(ctx).hasNotFailed();
+			assertThat(ctx.getBeanFactory().containsSingleton("fooString")).isTrue();
+			assertThat(ctx.getBeanFactory().containsSingleton("barString")).isTrue();
+		});
+	}
+
+	@Test
+	void testRuntimeHintsRegardlessOfConfiguredPrefixes() {
+		new ApplicationContextRunner().withBean(ConfigurationPostProcessor.class).run((ctx) -> {
+			assertThat(ctx.getBeanFactory().getBeanNamesForType(TestConfiguration.class)).isEmpty();
+			TestGenerationContext generationContext = new TestGenerationContext();
+			new AdditionalBeansAotProcessor().processAheadOfTime(ctx.getBeanFactory())
+				.applyTo(generationContext, mock(BeanFactoryInitializationCode.class));
+			RuntimeHints hints = generationContext.getRuntimeHints();
+			assertThat(RuntimeHintsPredicates.reflection()
+				.onType(TestConfiguration.class)
+				.withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+						MemberCategory.INVOKE_DECLARED_METHODS))
+				.accepts(hints);
+			assertThat(RuntimeHintsPredicates.reflection().onType(TestProperties.class)).accepts(hints);
+			assertThat(ctx.getBean(ConfigurationPostProcessor.class).getBeanNames("aotProbe")).isEmpty();
+		});
+	}
+
 	@ConfigurationProperties("test")
 	static class TestProperties {
 
@@ -34,4 +127,42 @@ class AdditionalBeansPostProcessorTests {
 
 	}
 
+	static class BootstrapPostProcessor extends AdditionalBeansPostProcessor<TestProperties, TestConnectionDetails> {
+
+		@Override
+		protected void registerBeanDefinitions(BeanDefinitionRegistry registry, String prefix) {
+			boolean fail = getProperty(prefix, "fail", Boolean.class, false);
+			Duration delay = bindProperty(prefix, "delay", Duration.class, Duration.ZERO);
+			registerBeanInstanceSupplier(registry, String.class, prefix, () -> {
+				Assert.state(!fail, () -> "Failed to bootstrap " + prefix);
+				try {
+					Thread.sleep(delay.toMillis());
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return prefix;
+			});
+		}
+
+	}
+
+	static class ConfigurationPostProcessor
+			extends AdditionalBeansPostProcessor<TestProperties, TestConnectionDetails> {
+
+		@Override
+		protected void registerBeanDefinitions(BeanDefinitionRegistry registry, String prefix) {
+			registerBeanDefinition(registry, TestConfiguration.class, prefix);
+		}
+
+	}
+
+	static class TestConfiguration {
+
+		private TestProperties testBean() {
+			return new TestProperties();
+		}
+
+	}
+
 }
@@ -0,0 +1,59 @@
+package io.additionalbeans.commons;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * @author Yanming Zhou
+ */
+class ConsistentHashRingTests {
+
+	@Test
+	void testDistribution() {
+		ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("foo", "bar", "baz"));
+		Map<String, Integer> counts = new HashMap<>();
+		IntStream.range(0, 30000).forEach((i) -> counts.merge(ring.nodeFor("key" + i), 1, Integer::sum));
+		assertThat(counts).containsOnlyKeys("foo", "bar", "baz");
+		counts.values().forEach((count) -> assertThat(count).isCloseTo(10000, within(2000)));
+	}
+
+	@Test
+	void testAddingNodeOnlyRemapsKeysToIt() {
+		ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("foo", "bar"));
+		ConsistentHashRing<String> grown = new ConsistentHashRing<>(nodes("foo", "bar", "baz"));
+		IntStream.range(0, 10000).mapToObj((i) -> "key" + i).forEach((key) -> {
+			String node = grown.nodeFor(key);
+			if (!node.equals("baz")) {
+				assertThat(node).isEqualTo(ring.nodeFor(key));
+			}
+		});
+	}
+
+	@Test
+	void testPartition() {
+		ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("foo", "bar", "baz"));
+		List<String> keys = IntStream.range(0, 100).mapToObj((i) -> "key" + i).toList();
+		Map<String, List<String>> partitions = ring.partition(keys, (key) -> key.getBytes(StandardCharsets.UTF_8));
+		assertThat(partitions.values().stream().mapToInt(List::size).sum()).isEqualTo(keys.size());
+		partitions
+			.forEach((node, partition) -> assertThat(partition).allMatch((key) -> ring.nodeFor(key).equals(node)));
+	}
+
+	private static Map<String, String> nodes(String... names) {
+		Map<String, String> nodes = new LinkedHashMap<>();
+		for (String name : names) {
+			nodes.put(name, name);
+		}
+		return nodes;
+	}
+
+}
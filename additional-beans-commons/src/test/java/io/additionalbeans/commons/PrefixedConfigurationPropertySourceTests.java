@@ -0,0 +1,78 @@
+package io.additionalbeans.commons;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.StandardEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Yanming Zhou
+ */
+class PrefixedConfigurationPropertySourceTests {
+
+	@Test
+	void testIndex() {
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources()
+			.addFirst(new MapPropertySource("high", Map.of("foo.datasource.url", "jdbc:h2:mem:high")));
+		environment.getPropertySources()
+			.addLast(new MapPropertySource("low", Map.of("spring.datasource.url", "jdbc:h2:mem:default",
+					"foo.datasource.url", "jdbc:h2:mem:low", "server.port", "8080")));
+		List<ConfigurationPropertySource> sources = PrefixedConfigurationPropertySource.index(
+				ConfigurationPropertySources.from(environment.getPropertySources()),
+				List.of(ConfigurationPropertyName.of("spring.datasource"),
+						ConfigurationPropertyName.of("foo.datasource")));
+		assertThat(sources).hasSize(2).allMatch(PrefixedConfigurationPropertySource.class::isInstance);
+		Binder binder = new Binder(sources);
+		assertThat(binder.bind("foo.datasource.url", String.class).get()).isEqualTo("jdbc:h2:mem:high");
+		assertThat(binder.bind("spring.datasource.url", String.class).get()).isEqualTo("jdbc:h2:mem:default");
+		assertThat(binder.bind("server.port", Integer.class).isBound()).isFalse();
+	}
+
+	@Test
+	void testValuesAreReadFromUnderlyingSource() {
+		Map<String, Object> properties = new HashMap<>(Map.of("foo.datasource.url", "jdbc:h2:mem:foo"));
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+		Binder binder = new Binder(PrefixedConfigurationPropertySource.index(
+				ConfigurationPropertySources.from(environment.getPropertySources()),
+				List.of(ConfigurationPropertyName.of("foo.datasource"))));
+		properties.put("foo.datasource.url", "jdbc:h2:mem:changed");
+		assertThat(binder.bind("foo.datasource.url", String.class).get()).isEqualTo("jdbc:h2:mem:changed");
+	}
+
+	@Test
+	void testSnapshot() {
+		Map<String, Object> properties = new HashMap<>(Map.of("foo.datasource.url", "jdbc:h2:mem:foo"));
+		StandardEnvironment environment = new StandardEnvironment();
+		MutablePropertySources propertySources = environment.getPropertySources();
+		propertySources.addFirst(new MapPropertySource("test", properties));
+		PrefixedConfigurationPropertySource.Snapshot snapshot = new PrefixedConfigurationPropertySource.Snapshot(
+				propertySources);
+		assertThat(snapshot.isCurrent(propertySources)).isTrue();
+		properties.put("foo.datasource.url", "jdbc:h2:mem:changed");
+		assertThat(snapshot.isCurrent(propertySources)).isTrue();
+		properties.put("foo.datasource.username", "sa");
+		assertThat(snapshot.isCurrent(propertySources)).isFalse();
+
+		snapshot = new PrefixedConfigurationPropertySource.Snapshot(propertySources);
+		propertySources.replace("test", new MapPropertySource("test", Map.of()));
+		assertThat(snapshot.isCurrent(propertySources)).isFalse();
+
+		snapshot = new PrefixedConfigurationPropertySource.Snapshot(propertySources);
+		propertySources.addLast(new MapPropertySource("last", Map.of()));
+		assertThat(snapshot.isCurrent(propertySources)).isFalse();
+	}
+
+}
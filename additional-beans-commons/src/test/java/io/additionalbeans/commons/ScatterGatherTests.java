@@ -0,0 +1,74 @@
+package io.additionalbeans.commons;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * @author Yanming Zhou
+ */
+class ScatterGatherTests {
+
+	private final Executor executor = new SimpleAsyncTaskExecutor();
+
+	@Test
+	void testResultsInNodeOrder() {
+		Map<String, Integer> nodes = new LinkedHashMap<>();
+		nodes.put("foo", 1);
+		nodes.put("bar", 2);
+		nodes.put("baz", 3);
+		assertThat(ScatterGather.execute(nodes, (name, node) -> name + node, this.executor))
+			.containsExactly(Map.entry("foo", "foo1"), Map.entry("bar", "bar2"), Map.entry("baz", "baz3"));
+	}
+
+	@Test
+	void testOperationsRunInParallel() {
+		Map<String, Integer> nodes = new LinkedHashMap<>();
+		nodes.put("foo", 1);
+		nodes.put("bar", 2);
+		CountDownLatch latch = new CountDownLatch(2);
+		assertThat(ScatterGather.execute(nodes, (name, node) -> {
+			latch.countDown();
+			try {
+				return latch.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}, this.executor)).containsOnly(Map.entry("foo", true), Map.entry("bar", true));
+	}
+
+	@Test
+	void testSingleNodeRunsInCallerThread() {
+		Thread caller = Thread.currentThread();
+		Executor unused = (task) -> {
+			throw new AssertionError("should not be used");
+		};
+		assertThat(ScatterGather.execute(Map.of("foo", 1), (name, node) -> Thread.currentThread() == caller, unused))
+			.containsOnly(Map.entry("foo", true));
+	}
+
+	@Test
+	void testFailureIsRethrown() {
+		Map<String, Integer> nodes = new LinkedHashMap<>();
+		nodes.put("foo", 1);
+		nodes.put("bar", 2);
+		assertThatIllegalStateException().isThrownBy(() -> ScatterGather.execute(nodes, (name, node) -> {
+			if (name.equals("bar")) {
+				throw new IllegalStateException(name);
+			}
+			return node;
+		}, this.executor)).withMessage("bar");
+	}
+
+}
@@ -5,5 +5,9 @@ plugins {
 dependencies {
 	implementation(project(":additional-beans-commons"))
 	implementation("org.springframework.boot:spring-boot-starter-jdbc")
+	compileOnly("com.github.ben-manes.caffeine:caffeine")
+	compileOnly("io.micrometer:micrometer-core")
 	testImplementation("com.h2database:h2")
+	testImplementation("com.github.ben-manes.caffeine:caffeine")
+	testImplementation("io.micrometer:micrometer-core")
 }
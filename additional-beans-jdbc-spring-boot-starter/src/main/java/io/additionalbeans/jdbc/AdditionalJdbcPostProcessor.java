@@ -1,12 +1,42 @@
 package io.additionalbeans.jdbc;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
 import javax.sql.DataSource;
 
+import com.zaxxer.hikari.HikariConfigMXBean;
 import com.zaxxer.hikari.HikariDataSource;
 import io.additionalbeans.commons.AdditionalBeansPostProcessor;
+import io.additionalbeans.commons.ConsistentHashRing;
+import io.additionalbeans.jdbc.LoadBalancedDataSource.LoadBalancing;
+import io.additionalbeans.jdbc.ShardedJdbcClient.ShardingStrategy;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.SingletonBeanRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
@@ -15,11 +45,23 @@ import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
 import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
 import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
 import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
 import org.springframework.boot.jdbc.HikariCheckpointRestoreLifecycle;
+import org.springframework.boot.jdbc.metadata.CompositeDataSourcePoolMetadataProvider;
+import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadata;
+import org.springframework.boot.jdbc.metadata.DataSourcePoolMetadataProvider;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.support.JdbcTransactionManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.transaction.TransactionManager;
+import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
@@ -27,10 +69,24 @@ import org.springframework.util.StringUtils;
  * @author Yanming Zhou
  */
 public class AdditionalJdbcPostProcessor
-		extends AdditionalBeansPostProcessor<DataSourceProperties, JdbcConnectionDetails> {
+		extends AdditionalBeansPostProcessor<DataSourceProperties, JdbcConnectionDetails> implements DisposableBean {
+
+	public static final String ROUTING_DATA_SOURCE_BEAN_NAME = "routingDataSource";
+
+	public static final String ROUTING_TRANSACTION_MANAGER_BEAN_NAME = "routingTransactionManager";
+
+	public static final String SHARDED_JDBC_CLIENT_BEAN_NAME = "shardedJdbcClient";
+
+	public static final String SHARDED_DATA_SOURCE_BEAN_NAME = "shardedDataSource";
+
+	public static final String HIKARI_POOL_SIZE_BALANCER_BEAN_NAME = "hikariPoolSizeBalancer";
+
+	private static final Log logger = LogFactory.getLog(AdditionalJdbcPostProcessor.class);
 
 	private static final String SPRING_JDBC_PREFIX = "spring.jdbc";
 
+	private static final String DEFAULT_DATA_SOURCE_BEAN_NAME = "dataSource";
+
 	private static final String HIKARI_DATASOURCE_CLASS_NAME = "com.zaxxer.hikari.HikariDataSource";
 
 	private static final String DBCP2_DATASOURCE_CLASS_NAME = "org.apache.commons.dbcp2.BasicDataSource";
@@ -39,6 +95,39 @@ public class AdditionalJdbcPostProcessor
 
 	private static final String ORACLE_UCP_DATASOURCE_CLASS_NAME = "oracle.ucp.jdbc.PoolDataSourceImpl";
 
+	private static final Duration DEFAULT_WARM_UP_TIMEOUT = Duration.ofSeconds(30);
+
+	private static final int DEFAULT_WARM_UP_CONCURRENCY_LIMIT = 16;
+
+	private static final int DEFAULT_SHARED_EXECUTOR_POOL_SIZE = 2;
+
+	private static final Duration DEFAULT_ADAPTIVE_SIZING_INTERVAL = Duration.ofSeconds(10);
+
+	private static final int DEFAULT_BATCH_SIZE = 100;
+
+	private static final Duration DEFAULT_BATCH_FLUSH_INTERVAL = Duration.ofSeconds(1);
+
+	private static final int DEFAULT_BATCH_MAX_PENDING = 10000;
+
+	private static final String CAFFEINE_CLASS_NAME = "com.github.benmanes.caffeine.cache.Caffeine";
+
+	private static final String METER_REGISTRY_CLASS_NAME = "io.micrometer.core.instrument.MeterRegistry";
+
+	private static final long DEFAULT_CACHE_MAXIMUM_SIZE = 10000;
+
+	private static final Duration DEFAULT_CACHE_TTL = Duration.ofMinutes(1);
+
+	private static final Duration DEFAULT_SLOW_QUERY_THRESHOLD = Duration.ofSeconds(1);
+
+	private ScheduledThreadPoolExecutor sharedHikariExecutor;
+
+	private ThreadFactory sharedHikariThreadFactory;
+
+	@Override
+	protected Set<String> getConfigurationPropertiesRoots() {
+		return Set.of(this.defaultConfigurationPropertiesPrefix, SPRING_JDBC_PREFIX);
+	}
+
 	@Override
 	protected void registerBeanDefinitions(BeanDefinitionRegistry registry, String prefix) {
 		registerDataSource(registry, prefix);
@@ -46,12 +135,44 @@ public class AdditionalJdbcPostProcessor
 		registerJdbcProperties(registry, prefix);
 		registerJdbcTemplate(registry, prefix);
 		registerJdbcClient(registry, prefix);
+		if (getProperty(prefix, "batching.enabled", Boolean.class, false)) {
+			registerBatchingJdbcTemplate(registry, prefix);
+		}
+		if (getProperty(prefix, "cache.enabled", Boolean.class, false)) {
+			registerCachingJdbcClient(registry, prefix);
+		}
 		if (useHikariFor(prefix)
 				&& ClassUtils.isPresent("org.crac.Resource", DataSourceAutoConfiguration.class.getClassLoader())) {
 			registerHikariCheckpointRestoreLifecycle(registry, prefix);
 		}
 	}
 
+	@Override
+	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+		super.postProcessBeanDefinitionRegistry(registry);
+		List<String> readReplicas = this.binder
+			.bind(configurationKeyFor("routing.read-replicas"), Bindable.listOf(String.class))
+			.orElse(Collections.emptyList());
+		if (!readReplicas.isEmpty()) {
+			registerRoutingDataSource(registry, readReplicas);
+		}
+		List<String> shards = this.binder
+			.bind(configurationKeyFor("sharding.shards"), Bindable.listOf(String.class))
+			.orElse(Collections.emptyList());
+		if (!shards.isEmpty()) {
+			registerShardedJdbcClient(registry, shards);
+		}
+		if (this.binder.bind(configurationKeyFor("adaptive-sizing.enabled"), Boolean.class).orElse(false)) {
+			registerHikariPoolSizeBalancer(registry);
+		}
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		super.afterSingletonsInstantiated();
+		warmUp();
+	}
+
 	@Override
 	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
 		bean = super.postProcessBeforeInitialization(bean, beanName);
@@ -66,25 +187,28 @@ public class AdditionalJdbcPostProcessor
 					Bindable<?> bindable = Bindable.ofInstance(bean);
 					switch (type) {
 						case HIKARI_DATASOURCE_CLASS_NAME -> {
-							this.binder.bind(defaultPrefix + "hikari", bindable);
-							this.binder.bind(namePrefix + "hikari", bindable);
+							bind(prefix, beanName, defaultPrefix + "hikari", bindable);
+							bind(prefix, beanName, namePrefix + "hikari", bindable);
 							String name = this.environment.getProperty(namePrefix + "name");
 							if (!StringUtils.hasText(name)) {
 								name = prefix;
 							}
 							((HikariDataSource) bean).setPoolName(name);
+							if (getProperty(prefix, "hikari.shared-executor.enabled", Boolean.class, false)) {
+								useSharedHikariExecutor((HikariDataSource) bean);
+							}
 						}
 						case DBCP2_DATASOURCE_CLASS_NAME -> {
-							this.binder.bind(defaultPrefix + "dbcp2", bindable);
-							this.binder.bind(namePrefix + "dbcp2", bindable);
+							bind(prefix, beanName, defaultPrefix + "dbcp2", bindable);
+							bind(prefix, beanName, namePrefix + "dbcp2", bindable);
 						}
 						case TOMCAT_DATASOURCE_CLASS_NAME -> {
-							this.binder.bind(defaultPrefix + "tomcat", bindable);
-							this.binder.bind(namePrefix + "tomcat", bindable);
+							bind(prefix, beanName, defaultPrefix + "tomcat", bindable);
+							bind(prefix, beanName, namePrefix + "tomcat", bindable);
 						}
 						case ORACLE_UCP_DATASOURCE_CLASS_NAME -> {
-							this.binder.bind(defaultPrefix + "oracleucp", bindable);
-							this.binder.bind(namePrefix + "oracleucp", bindable);
+							bind(prefix, beanName, defaultPrefix + "oracleucp", bindable);
+							bind(prefix, beanName, namePrefix + "oracleucp", bindable);
 						}
 					}
 
@@ -96,13 +220,170 @@ public class AdditionalJdbcPostProcessor
 			if (beanName.endsWith(suffix)) {
 				String prefix = beanName.substring(0, beanName.length() - suffix.length());
 				if (this.prefixes.contains(prefix)) {
-					this.binder.bind(SPRING_JDBC_PREFIX.replace("spring", prefix), Bindable.ofInstance(bean));
+					bind(prefix, beanName, SPRING_JDBC_PREFIX.replace("spring", prefix), Bindable.ofInstance(bean));
 				}
 			}
 		}
 		return bean;
 	}
 
+	private void warmUp() {
+		List<String> warmUpPrefixes = this.prefixes.stream()
+			.filter((prefix) -> !isLazy(prefix) && getProperty(prefix, "warm-up.enabled", Boolean.class, false))
+			.toList();
+		if (warmUpPrefixes.isEmpty()) {
+			return;
+		}
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(
+				configurationKeyFor("warm-up").replace('.', '-') + '-');
+		executor.setVirtualThreads(Threading.VIRTUAL.isActive(this.environment));
+		// acquisitions not completed within the timeout should not prevent shutdown
+		executor.setDaemon(true);
+		executor.setConcurrencyLimit(this.binder.bind(configurationKeyFor("warm-up.concurrency-limit"), Integer.class)
+			.orElse(DEFAULT_WARM_UP_CONCURRENCY_LIMIT));
+		DataSourcePoolMetadataProvider metadataProvider = new CompositeDataSourcePoolMetadataProvider(
+				this.applicationContext.getBeanProvider(DataSourcePoolMetadataProvider.class).orderedStream().toList());
+		long start = System.nanoTime();
+		Map<String, CompletableFuture<Integer>> futures = new LinkedHashMap<>();
+		for (String prefix : warmUpPrefixes) {
+			DataSource dataSource = this.applicationContext.getBean(prefix + DataSource.class.getSimpleName(),
+					DataSource.class);
+			DataSourcePoolMetadata metadata = metadataProvider.getDataSourcePoolMetadata(dataSource);
+			Integer min = (metadata != null) ? metadata.getMin() : null;
+			String validationQuery = getProperty(prefix, "warm-up.validation-query", String.class, null);
+			futures.put(prefix,
+					warmUp(dataSource, (min != null) ? Math.max(min, 1) : 1, validationQuery, executor));
+		}
+		futures.forEach((prefix, future) -> {
+			Duration timeout = bindProperty(prefix, "warm-up.timeout", Duration.class, DEFAULT_WARM_UP_TIMEOUT);
+			try {
+				int connections = future.get(Math.max(0, start + timeout.toNanos() - System.nanoTime()),
+						TimeUnit.NANOSECONDS);
+				if (logger.isDebugEnabled()) {
+					logger.debug("Warmed up %d connections of prefix '%s'".formatted(connections, prefix));
+				}
+			}
+			catch (ExecutionException ex) {
+				logger.warn("Failed to warm up data source of prefix '%s'".formatted(prefix), ex.getCause());
+			}
+			catch (TimeoutException ex) {
+				logger.warn("Warm-up of data source of prefix '%s' not completed within %s".formatted(prefix, timeout));
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+	}
+
+	private static CompletableFuture<Integer> warmUp(DataSource dataSource, int connections, String validationQuery,
+			Executor executor) {
+		List<CompletableFuture<Connection>> acquisitions = new ArrayList<>(connections);
+		for (int i = 0; i < connections; i++) {
+			acquisitions.add(CompletableFuture.supplyAsync(() -> acquire(dataSource, validationQuery), executor));
+		}
+		// connections are held until all are acquired to force the pool to open distinct ones
+		return CompletableFuture.allOf(acquisitions.toArray(CompletableFuture[]::new))
+			.whenComplete((result, ex) -> acquisitions.forEach((acquisition) -> acquisition.thenAccept((con) -> {
+				try {
+					con.close();
+				}
+				catch (SQLException ignored) {
+				}
+			})))
+			.thenApply((result) -> connections);
+	}
+
+	private static Connection acquire(DataSource dataSource, String validationQuery) {
+		try {
+			Connection con = dataSource.getConnection();
+			try {
+				if (validationQuery != null) {
+					try (Statement statement = con.createStatement()) {
+						statement.execute(validationQuery);
+					}
+				}
+				else if (!con.isValid(0)) {
+					throw new SQLException("Connection is not valid");
+				}
+				return con;
+			}
+			catch (SQLException ex) {
+				con.close();
+				throw ex;
+			}
+		}
+		catch (SQLException ex) {
+			throw new IllegalStateException("Failed to acquire validated connection", ex);
+		}
+	}
+
+	@Override
+	public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if (bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)) {
+			String suffix = DataSource.class.getSimpleName();
+			if (beanName.endsWith(suffix)) {
+				String prefix = beanName.substring(0, beanName.length() - suffix.length());
+				if (this.prefixes.contains(prefix) && getProperty(prefix, "tracing.enabled", Boolean.class, false)) {
+					// wrapped after initialization so pool properties are bound to the target
+					return new TracingDataSource(dataSource, prefix,
+							bindProperty(prefix, "tracing.slow-query-threshold", Duration.class,
+									DEFAULT_SLOW_QUERY_THRESHOLD),
+							tracingListener(prefix));
+				}
+			}
+		}
+		return bean;
+	}
+
+	private TracingDataSource.Listener tracingListener(String prefix) {
+		if (ClassUtils.isPresent(METER_REGISTRY_CLASS_NAME, DataSourceAutoConfiguration.class.getClassLoader())) {
+			return MicrometerMetrics.tracingListener(this.applicationContext, prefix);
+		}
+		return new TracingDataSource.Listener() {
+
+			@Override
+			public void connectionAcquired(long nanos, boolean success) {
+			}
+
+			@Override
+			public void statementExecuted(String sql, long nanos, long rows, boolean success) {
+			}
+
+		};
+	}
+
+	private synchronized void useSharedHikariExecutor(HikariDataSource dataSource) {
+		if (this.sharedHikariExecutor == null) {
+			String threadNamePrefix = configurationKeyFor("hikari").replace('.', '-') + '-';
+			if (Threading.VIRTUAL.isActive(this.environment)) {
+				this.sharedHikariThreadFactory = new VirtualThreadTaskExecutor(threadNamePrefix)
+					.getVirtualThreadFactory();
+			}
+			CustomizableThreadFactory housekeeperThreadFactory = new CustomizableThreadFactory(
+					threadNamePrefix + "housekeeper-");
+			housekeeperThreadFactory.setDaemon(true);
+			int poolSize = this.binder.bind(configurationKeyFor("hikari.shared-executor.pool-size"), Integer.class)
+				.orElse(DEFAULT_SHARED_EXECUTOR_POOL_SIZE);
+			ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(poolSize, housekeeperThreadFactory,
+					new ThreadPoolExecutor.DiscardPolicy());
+			executor.setRemoveOnCancelPolicy(true);
+			this.sharedHikariExecutor = executor;
+		}
+		// Hikari doesn't shut down an executor it doesn't own
+		dataSource.setScheduledExecutor(this.sharedHikariExecutor);
+		if (this.sharedHikariThreadFactory != null) {
+			dataSource.setThreadFactory(this.sharedHikariThreadFactory);
+		}
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (this.sharedHikariExecutor != null) {
+			this.sharedHikariExecutor.shutdownNow();
+			this.sharedHikariExecutor = null;
+		}
+	}
+
 	private void registerJdbcProperties(BeanDefinitionRegistry registry, String prefix) {
 		registerBeanDefinition(registry, JdbcProperties.class, prefix);
 	}
@@ -130,11 +411,176 @@ public class AdditionalJdbcPostProcessor
 				"namedParameterJdbcTemplate");
 	}
 
+	private void registerBatchingJdbcTemplate(BeanDefinitionRegistry registry, String prefix) {
+		String jdbcTemplateBeanName = prefix + JdbcTemplate.class.getSimpleName();
+		int batchSize = bindProperty(prefix, "batching.batch-size", Integer.class, DEFAULT_BATCH_SIZE);
+		Duration flushInterval = bindProperty(prefix, "batching.flush-interval", Duration.class,
+				DEFAULT_BATCH_FLUSH_INTERVAL);
+		int maxPending = bindProperty(prefix, "batching.max-pending", Integer.class, DEFAULT_BATCH_MAX_PENDING);
+		String threadNamePrefix = configurationKeyFor(prefix + ".batching").replace('.', '-') + '-';
+		String beanName = registerBeanInstanceSupplier(registry, BatchingJdbcTemplate.class, prefix,
+				() -> new BatchingJdbcTemplate(
+						this.applicationContext.getBean(jdbcTemplateBeanName, JdbcTemplate.class), batchSize,
+						flushInterval, maxPending, threadNamePrefix));
+		// pending batches are flushed before the data source is closed
+		registry.getBeanDefinition(beanName)
+			.setDependsOn(prefix + DataSource.class.getSimpleName(), jdbcTemplateBeanName);
+	}
+
+	private void registerCachingJdbcClient(BeanDefinitionRegistry registry, String prefix) {
+		ClassLoader classLoader = DataSourceAutoConfiguration.class.getClassLoader();
+		Assert.state(ClassUtils.isPresent(CAFFEINE_CLASS_NAME, classLoader),
+				() -> "Caffeine is required by " + configurationKeyFor(prefix + ".cache.enabled"));
+		String jdbcClientBeanName = prefix + JdbcClient.class.getSimpleName();
+		long maximumSize = bindProperty(prefix, "cache.maximum-size", Long.class, DEFAULT_CACHE_MAXIMUM_SIZE);
+		Duration ttl = bindProperty(prefix, "cache.ttl", Duration.class, DEFAULT_CACHE_TTL);
+		registerBeanInstanceSupplier(registry, CachingJdbcClient.class, prefix, () -> {
+			CachingJdbcClient client = new CachingJdbcClient(
+					this.applicationContext.getBean(jdbcClientBeanName, JdbcClient.class), maximumSize, ttl);
+			if (ClassUtils.isPresent(METER_REGISTRY_CLASS_NAME, classLoader)) {
+				MicrometerMetrics.bindCacheMetrics(this.applicationContext, client, jdbcClientBeanName, prefix);
+			}
+			return client;
+		});
+	}
+
 	private void registerJdbcClient(BeanDefinitionRegistry registry, String prefix) {
 		String configurationBeanName = registerBeanDefinition(registry, JdbcClientAutoConfiguration.class, prefix);
 		registerBeanDefinition(registry, JdbcClient.class, prefix, configurationBeanName, "jdbcClient");
 	}
 
+	private void registerRoutingDataSource(BeanDefinitionRegistry registry, List<String> readReplicas) {
+		Assert.state(this.prefixes.containsAll(readReplicas),
+				() -> "Read replicas " + readReplicas + " should be in " + configurationKeyForPrefixes());
+		String primary = this.environment.getProperty(configurationKeyFor("routing.primary"));
+		Assert.state(primary == null || this.prefixes.contains(primary),
+				() -> "Primary " + primary + " should be in " + configurationKeyForPrefixes());
+		String primaryBeanName = (primary != null) ? primary + DataSource.class.getSimpleName()
+				: DEFAULT_DATA_SOURCE_BEAN_NAME;
+		List<String> readReplicaBeanNames = readReplicas.stream()
+			.map((prefix) -> prefix + DataSource.class.getSimpleName())
+			.toList();
+		LoadBalancing loadBalancing = this.binder
+			.bind(configurationKeyFor("routing.load-balancing"), LoadBalancing.class)
+			.orElse(LoadBalancing.ROUND_ROBIN);
+		RootBeanDefinition bd = new RootBeanDefinition(LazyConnectionDataSourceProxy.class, () -> {
+			Map<String, DataSource> dataSources = new LinkedHashMap<>();
+			readReplicaBeanNames
+				.forEach((name) -> dataSources.put(name, this.applicationContext.getBean(name, DataSource.class)));
+			// read-only transactions are routed to replicas when the connection is fetched
+			LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+					this.applicationContext.getBean(primaryBeanName, DataSource.class));
+			dataSource.setReadOnlyDataSource(new LoadBalancedDataSource(dataSources, loadBalancing));
+			return dataSource;
+		});
+		bd.setTargetType(DataSource.class);
+		bd.setDependsOn(
+				Stream.concat(Stream.of(primaryBeanName), readReplicaBeanNames.stream()).toArray(String[]::new));
+		List<String> referencedPrefixes = new ArrayList<>(readReplicas);
+		if (primary != null) {
+			referencedPrefixes.add(primary);
+		}
+		registerModuleBeanDefinition(registry, ROUTING_DATA_SOURCE_BEAN_NAME, bd, referencedPrefixes);
+
+		bd = new RootBeanDefinition(JdbcTransactionManager.class, () -> new JdbcTransactionManager(
+				this.applicationContext.getBean(ROUTING_DATA_SOURCE_BEAN_NAME, DataSource.class)));
+		bd.setTargetType(TransactionManager.class);
+		registerModuleBeanDefinition(registry, ROUTING_TRANSACTION_MANAGER_BEAN_NAME, bd);
+	}
+
+	private void registerShardedJdbcClient(BeanDefinitionRegistry registry, List<String> shards) {
+		Assert.state(this.prefixes.containsAll(shards),
+				() -> "Shards " + shards + " should be in " + configurationKeyForPrefixes());
+		Function<Object, String> shardSelector = shardSelectorFor(shards);
+		String executorBeanName = registerModuleTaskExecutor(registry, "sharding");
+		List<String> jdbcClientBeanNames = shards.stream()
+			.map((prefix) -> prefix + JdbcClient.class.getSimpleName())
+			.toList();
+		RootBeanDefinition bd = new RootBeanDefinition(ShardedJdbcClient.class, () -> {
+			Map<String, JdbcClient> clients = new LinkedHashMap<>();
+			for (int i = 0; i < shards.size(); i++) {
+				clients.put(shards.get(i),
+						this.applicationContext.getBean(jdbcClientBeanNames.get(i), JdbcClient.class));
+			}
+			return new ShardedJdbcClient(clients, shardSelector,
+					this.applicationContext.getBean(executorBeanName, Executor.class));
+		});
+		bd.setDependsOn(Stream.concat(jdbcClientBeanNames.stream(), Stream.of(executorBeanName))
+			.toArray(String[]::new));
+		registerModuleBeanDefinition(registry, SHARDED_JDBC_CLIENT_BEAN_NAME, bd, shards);
+
+		List<String> dataSourceBeanNames = shards.stream()
+			.map((prefix) -> prefix + DataSource.class.getSimpleName())
+			.toList();
+		bd = new RootBeanDefinition(ShardedDataSource.class, () -> {
+			Map<String, DataSource> dataSources = new LinkedHashMap<>();
+			for (int i = 0; i < shards.size(); i++) {
+				dataSources.put(shards.get(i),
+						this.applicationContext.getBean(dataSourceBeanNames.get(i), DataSource.class));
+			}
+			return new ShardedDataSource(dataSources, shardSelector);
+		});
+		bd.setDependsOn(dataSourceBeanNames.toArray(String[]::new));
+		registerModuleBeanDefinition(registry, SHARDED_DATA_SOURCE_BEAN_NAME, bd, shards);
+	}
+
+	private Function<Object, String> shardSelectorFor(List<String> shards) {
+		ShardingStrategy strategy = this.binder.bind(configurationKeyFor("sharding.strategy"), ShardingStrategy.class)
+			.orElse(ShardingStrategy.CONSISTENT_HASH);
+		return switch (strategy) {
+			case CONSISTENT_HASH -> ShardedJdbcClient.consistentHashing(shards,
+					this.binder.bind(configurationKeyFor("sharding.virtual-nodes"), Integer.class)
+						.orElse(ConsistentHashRing.DEFAULT_VIRTUAL_NODES));
+			case RANGE -> {
+				Map<String, Long> lowerBounds = this.binder
+					.bind(configurationKeyFor("sharding.ranges"), Bindable.mapOf(String.class, Long.class))
+					.orElseThrow(() -> new IllegalStateException(
+							configurationKeyFor("sharding.ranges") + " is required by range sharding"));
+				Assert.state(lowerBounds.keySet().equals(Set.copyOf(shards)),
+						() -> "Ranges " + lowerBounds.keySet() + " should be defined for shards " + shards);
+				yield new RangeShardTable(lowerBounds)::shardFor;
+			}
+		};
+	}
+
+	private void registerHikariPoolSizeBalancer(BeanDefinitionRegistry registry) {
+		int maxTotalConnections = this.binder
+			.bind(configurationKeyFor("adaptive-sizing.max-total-connections"), Integer.class)
+			.orElseThrow(() -> new IllegalStateException(
+					configurationKeyFor("adaptive-sizing.max-total-connections") + " is required"));
+		int minPoolSize = this.binder.bind(configurationKeyFor("adaptive-sizing.min-pool-size"), Integer.class)
+			.orElse(1);
+		Assert.state(maxTotalConnections >= this.prefixes.size() * minPoolSize,
+				() -> "%s should not be less than %d, i.e. %s times the number of prefixes".formatted(
+						configurationKeyFor("adaptive-sizing.max-total-connections"),
+						this.prefixes.size() * minPoolSize, configurationKeyFor("adaptive-sizing.min-pool-size")));
+		Duration interval = this.binder.bind(configurationKeyFor("adaptive-sizing.interval"), Duration.class)
+			.orElse(DEFAULT_ADAPTIVE_SIZING_INTERVAL);
+		RootBeanDefinition bd = new RootBeanDefinition(HikariPoolSizeBalancer.class,
+				() -> new HikariPoolSizeBalancer(this::createdHikariDataSources, maxTotalConnections, minPoolSize,
+						interval));
+		registerModuleBeanDefinition(registry, HIKARI_POOL_SIZE_BALANCER_BEAN_NAME, bd);
+	}
+
+	private Map<String, HikariDataSource> createdHikariDataSources() {
+		Map<String, HikariDataSource> dataSources = new LinkedHashMap<>();
+		if (this.applicationContext.getAutowireCapableBeanFactory() instanceof SingletonBeanRegistry registry) {
+			for (String prefix : this.prefixes) {
+				// pools of lazy prefixes are not created by the balancer
+				String beanName = prefix + DataSource.class.getSimpleName();
+				if (registry.containsSingleton(beanName)) {
+					HikariDataSource dataSource = DataSourceUnwrapper.unwrap(
+							this.applicationContext.getBean(beanName, DataSource.class), HikariConfigMXBean.class,
+							HikariDataSource.class);
+					if (dataSource != null) {
+						dataSources.put(prefix, dataSource);
+					}
+				}
+			}
+		}
+		return dataSources;
+	}
+
 	private void registerHikariCheckpointRestoreLifecycle(BeanDefinitionRegistry registry, String prefix) {
 		registerBeanDefinition(registry, HikariCheckpointRestoreLifecycle.class, prefix);
 	}
@@ -148,4 +594,24 @@ public class AdditionalJdbcPostProcessor
 			.isPresent(HIKARI_DATASOURCE_CLASS_NAME, DataSourceAutoConfiguration.class.getClassLoader());
 	}
 
+	/**
+	 * Holds references to Micrometer which is optional, types are fully qualified so the
+	 * post processor itself doesn't reference them.
+	 */
+	private static final class MicrometerMetrics {
+
+		static TracingDataSource.Listener tracingListener(ApplicationContext applicationContext, String prefix) {
+			return new MicrometerTracingListener(
+					applicationContext.getBeanProvider(io.micrometer.core.instrument.MeterRegistry.class), prefix);
+		}
+
+		static void bindCacheMetrics(ApplicationContext applicationContext, CachingJdbcClient client,
+				String cacheName, String prefix) {
+			applicationContext.getBeanProvider(io.micrometer.core.instrument.MeterRegistry.class)
+				.ifAvailable((registry) -> io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics
+					.monitor(registry, client.getCache(), cacheName, "prefix", prefix));
+		}
+
+	}
+
 }
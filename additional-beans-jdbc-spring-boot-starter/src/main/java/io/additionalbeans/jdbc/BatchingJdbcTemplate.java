@@ -0,0 +1,242 @@
+package io.additionalbeans.jdbc;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Accumulates updates into JDBC batches per SQL statement, a batch is executed
+ * asynchronously on a dedicated thread once it reaches the batch size or the flush
+ * interval elapses. Callers are blocked when the number of pending updates reaches the
+ * limit. Updates are rejected once the template is destroyed.
+ *
+ * @author Yanming Zhou
+ */
+public class BatchingJdbcTemplate implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(BatchingJdbcTemplate.class);
+
+	private final JdbcOperations jdbcOperations;
+
+	private final int batchSize;
+
+	private final Semaphore pending;
+
+	private final int maxPending;
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private final Map<String, Batch> batches = new LinkedHashMap<>();
+
+	private volatile boolean destroyed;
+
+	public BatchingJdbcTemplate(JdbcOperations jdbcOperations, int batchSize, Duration flushInterval, int maxPending,
+			String threadNamePrefix) {
+		Assert.isTrue(batchSize > 0, "batchSize should be positive");
+		Assert.isTrue(maxPending >= batchSize, "maxPending should not be less than batchSize");
+		this.jdbcOperations = jdbcOperations;
+		this.batchSize = batchSize;
+		this.maxPending = maxPending;
+		this.pending = new Semaphore(maxPending);
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+		threadFactory.setDaemon(true);
+		// a single thread keeps batches of the same statement in submission order
+		this.executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+		long period = flushInterval.toMillis();
+		this.executor.scheduleWithFixedDelay(this::flushAsync, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	public JdbcOperations getJdbcOperations() {
+		return this.jdbcOperations;
+	}
+
+	/**
+	 * Add an update to the batch of the given SQL statement, blocking while the number of
+	 * pending updates reaches the limit.
+	 * @param sql the SQL statement
+	 * @param args the arguments of the statement
+	 * @return the future of the number of rows affected by the update as reported by the
+	 * driver, or {@link Statement#SUCCESS_NO_INFO} if the driver executed the update
+	 * without reporting its count, e.g. MySQL with {@code rewriteBatchedStatements}
+	 * @throws IllegalStateException if the template is destroyed
+	 */
+	public CompletableFuture<Integer> update(String sql, Object... args) {
+		assertNotDestroyed();
+		try {
+			this.pending.acquire();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return CompletableFuture.failedFuture(ex);
+		}
+		return enqueue(sql, args);
+	}
+
+	/**
+	 * Add an update to the batch of the given SQL statement if the number of pending
+	 * updates is below the limit.
+	 * @param sql the SQL statement
+	 * @param args the arguments of the statement
+	 * @return the future of the number of rows affected by the update, or {@code null} if
+	 * too many updates are pending
+	 * @throws IllegalStateException if the template is destroyed
+	 */
+	public CompletableFuture<Integer> tryUpdate(String sql, Object... args) {
+		assertNotDestroyed();
+		if (!this.pending.tryAcquire()) {
+			return null;
+		}
+		return enqueue(sql, args);
+	}
+
+	/**
+	 * Return the number of updates not executed yet.
+	 * @return the number of pending updates
+	 */
+	public int getPendingCount() {
+		return this.maxPending - this.pending.availablePermits();
+	}
+
+	/**
+	 * Execute all pending batches and wait for their completion.
+	 */
+	public void flush() {
+		flushAsync().join();
+	}
+
+	/**
+	 * Reject further updates and execute pending batches, updates which can't be executed
+	 * any more are completed exceptionally.
+	 */
+	@Override
+	public void destroy() {
+		synchronized (this.batches) {
+			this.destroyed = true;
+		}
+		try {
+			flush();
+		}
+		finally {
+			this.executor.shutdown();
+			List<Batch> batches;
+			synchronized (this.batches) {
+				batches = new ArrayList<>(this.batches.values());
+				this.batches.clear();
+			}
+			batches.forEach((batch) -> fail(batch, destroyedException(null)));
+		}
+	}
+
+	private void assertNotDestroyed() {
+		if (this.destroyed) {
+			throw destroyedException(null);
+		}
+	}
+
+	private static IllegalStateException destroyedException(Throwable cause) {
+		return new IllegalStateException(BatchingJdbcTemplate.class.getSimpleName() + " has been destroyed", cause);
+	}
+
+	private CompletableFuture<Integer> enqueue(String sql, Object[] args) {
+		CompletableFuture<Integer> future = new CompletableFuture<>();
+		Batch full = null;
+		synchronized (this.batches) {
+			if (this.destroyed) {
+				// acquired the permit while the template was being destroyed
+				this.pending.release();
+				throw destroyedException(null);
+			}
+			Batch batch = this.batches.computeIfAbsent(sql, Batch::new);
+			batch.add(args, future);
+			if (batch.size() >= this.batchSize) {
+				full = this.batches.remove(sql);
+			}
+		}
+		if (full != null) {
+			submit(full);
+		}
+		return future;
+	}
+
+	private CompletableFuture<Void> flushAsync() {
+		List<Batch> batches;
+		synchronized (this.batches) {
+			batches = new ArrayList<>(this.batches.values());
+			this.batches.clear();
+		}
+		return CompletableFuture.allOf(batches.stream().map(this::submit).toArray(CompletableFuture[]::new));
+	}
+
+	private CompletableFuture<Void> submit(Batch batch) {
+		try {
+			return CompletableFuture.runAsync(() -> execute(batch), this.executor);
+		}
+		catch (RejectedExecutionException ex) {
+			// a full batch taken before destroy() is submitted after the shutdown
+			fail(batch, destroyedException(ex));
+			return CompletableFuture.completedFuture(null);
+		}
+	}
+
+	private void fail(Batch batch, Throwable ex) {
+		batch.futures.forEach((future) -> future.completeExceptionally(ex));
+		this.pending.release(batch.size());
+	}
+
+	private void execute(Batch batch) {
+		try {
+			int[] counts = this.jdbcOperations.batchUpdate(batch.sql, batch.args);
+			for (int i = 0; i < batch.futures.size(); i++) {
+				// counts of all updates are unknown if the driver doesn't report them one by one
+				batch.futures.get(i).complete((i < counts.length) ? counts[i] : Statement.SUCCESS_NO_INFO);
+			}
+		}
+		catch (RuntimeException ex) {
+			logger.warn("Failed to execute batch of %d updates for '%s'".formatted(batch.size(), batch.sql), ex);
+			batch.futures.forEach((future) -> future.completeExceptionally(ex));
+		}
+		finally {
+			this.pending.release(batch.size());
+		}
+	}
+
+	private static final class Batch {
+
+		private final String sql;
+
+		private final List<Object[]> args = new ArrayList<>();
+
+		private final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+		private Batch(String sql) {
+			this.sql = sql;
+		}
+
+		private void add(Object[] args, CompletableFuture<Integer> future) {
+			this.args.add(args);
+			this.futures.add(future);
+		}
+
+		private int size() {
+			return this.args.size();
+		}
+
+	}
+
+}
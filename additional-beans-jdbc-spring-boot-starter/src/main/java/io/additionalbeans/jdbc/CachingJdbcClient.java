@@ -0,0 +1,192 @@
+package io.additionalbeans.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+/**
+ * Caches query results of a {@link JdbcClient} in a bounded Caffeine cache (W-TinyLFU
+ * eviction) keyed by SQL and parameters, entries can be invalidated per table referenced
+ * by their SQL, updates executed through this client invalidate the tables they modify.
+ * <p>
+ * Query results are not cached if any invalidation happened while they were being read,
+ * so stale results never outlive the invalidation of their tables.
+ *
+ * @author Yanming Zhou
+ */
+public class CachingJdbcClient {
+
+	private static final int MAXIMUM_TABLES_SIZE = 1000;
+
+	private static final Pattern TABLE_PATTERN = Pattern
+		.compile("\\b(?:from|join|update|into)\\s+([\\w.$\"`\\[\\]]+)", Pattern.CASE_INSENSITIVE);
+
+	private final JdbcClient jdbcClient;
+
+	private final Cache<CacheKey, List<?>> cache;
+
+	private final AtomicLong invalidations = new AtomicLong();
+
+	// tables referenced by SQL, bounded since SQL may be built dynamically
+	private final Cache<String, Set<String>> tables = Caffeine.newBuilder().maximumSize(MAXIMUM_TABLES_SIZE).build();
+
+	public CachingJdbcClient(JdbcClient jdbcClient, long maximumSize, Duration ttl) {
+		this.jdbcClient = jdbcClient;
+		this.cache = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+	}
+
+	public JdbcClient getJdbcClient() {
+		return this.jdbcClient;
+	}
+
+	public Cache<?, ?> getCache() {
+		return this.cache;
+	}
+
+	public CacheStats getStats() {
+		return this.cache.stats();
+	}
+
+	public <T> List<T> query(String sql, Class<T> mappedClass, Object... args) {
+		return cached(new CacheKey(sql, args.clone(), mappedClass),
+				() -> this.jdbcClient.sql(sql).params(args).query(mappedClass).list());
+	}
+
+	public <T> List<T> query(String sql, Map<String, ?> params, Class<T> mappedClass) {
+		return cached(new CacheKey(sql, flatten(params), mappedClass),
+				() -> this.jdbcClient.sql(sql).params(params).query(mappedClass).list());
+	}
+
+	/**
+	 * Query with a row mapper, row mappers can't be compared so the caller supplies a key
+	 * identifying how rows are mapped, which is part of the cache key.
+	 * @param sql the SQL query
+	 * @param rowMapperKey the key identifying the row mapper, rows of the same SQL and
+	 * parameters queried with the same key are shared
+	 * @param rowMapper the row mapper
+	 * @param args the positional parameters
+	 * @param <T> the type of rows
+	 * @return the cached rows
+	 */
+	public <T> List<T> query(String sql, String rowMapperKey, RowMapper<T> rowMapper, Object... args) {
+		return cached(new CacheKey(sql, args.clone(), rowMapperKey),
+				() -> this.jdbcClient.sql(sql).params(args).query(rowMapper).list());
+	}
+
+	/**
+	 * Execute an update, then invalidate entries of the tables it modifies.
+	 * @param sql the SQL statement
+	 * @param args the positional parameters
+	 * @return the number of rows affected
+	 */
+	public int update(String sql, Object... args) {
+		try {
+			return this.jdbcClient.sql(sql).params(args).update();
+		}
+		finally {
+			tablesFor(sql).forEach(this::invalidateTable);
+		}
+	}
+
+	/**
+	 * Invalidate entries whose SQL references the given table.
+	 * @param table the table name, optionally qualified by schema
+	 */
+	public void invalidateTable(String table) {
+		String name = normalize(table);
+		// loads in progress are applied under the same lock
+		synchronized (this.cache) {
+			this.invalidations.incrementAndGet();
+			this.cache.asMap().keySet().removeIf((key) -> tablesFor(key.sql()).contains(name));
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (this.cache) {
+			this.invalidations.incrementAndGet();
+			this.cache.invalidateAll();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> List<T> cached(CacheKey key, Supplier<List<T>> loader) {
+		List<T> rows = (List<T>) this.cache.getIfPresent(key);
+		if (rows != null) {
+			return rows;
+		}
+		long invalidations = this.invalidations.get();
+		rows = Collections.unmodifiableList(new ArrayList<>(loader.get()));
+		synchronized (this.cache) {
+			if (this.invalidations.get() == invalidations) {
+				this.cache.put(key, rows);
+			}
+		}
+		return rows;
+	}
+
+	// equal maps are flattened in the same order
+	private static Object[] flatten(Map<String, ?> params) {
+		Object[] flattened = new Object[params.size() * 2];
+		int i = 0;
+		for (Map.Entry<String, ?> entry : new TreeMap<>(params).entrySet()) {
+			flattened[i++] = entry.getKey();
+			flattened[i++] = entry.getValue();
+		}
+		return flattened;
+	}
+
+	private Set<String> tablesFor(String sql) {
+		return this.tables.get(sql, CachingJdbcClient::tablesOf);
+	}
+
+	static Set<String> tablesOf(String sql) {
+		Set<String> tables = new LinkedHashSet<>();
+		Matcher matcher = TABLE_PATTERN.matcher(sql);
+		while (matcher.find()) {
+			tables.add(normalize(matcher.group(1)));
+		}
+		return tables;
+	}
+
+	private static String normalize(String table) {
+		String name = table.replaceAll("[\"`\\[\\]]", "").toLowerCase(Locale.ROOT);
+		// schema qualified names are matched by table name
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+
+	// parameters are compared deeply since they may be arrays
+	private record CacheKey(String sql, Object[] params, Object mapping) {
+
+		@Override
+		public boolean equals(Object other) {
+			return (this == other) || (other instanceof CacheKey that && this.sql.equals(that.sql)
+					&& Arrays.deepEquals(this.params, that.params) && this.mapping.equals(that.mapping));
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.sql, Arrays.deepHashCode(this.params), this.mapping);
+		}
+
+	}
+
+}
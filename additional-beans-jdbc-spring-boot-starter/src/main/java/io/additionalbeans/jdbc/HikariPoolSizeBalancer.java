@@ -0,0 +1,191 @@
+package io.additionalbeans.jdbc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Periodically rebalances maximum sizes of Hikari pools within a global connection
+ * budget, in proportion to their demand, i.e. active connections plus threads awaiting a
+ * connection, smoothed across rounds. The maximum size configured for a pool is never
+ * exceeded, the minimum pool size is scaled down if pools don't fit in the budget. The
+ * minimum idle size of a pool is capped by its allocation, and connections of a pool
+ * exceeding its allocation are evicted, so that the budget holds for real connections.
+ *
+ * @author Yanming Zhou
+ */
+public class HikariPoolSizeBalancer implements SmartLifecycle {
+
+	private static final Log logger = LogFactory.getLog(HikariPoolSizeBalancer.class);
+
+	private static final double SMOOTHING_FACTOR = 0.5;
+
+	private final Supplier<Map<String, HikariDataSource>> pools;
+
+	private final int maxTotalConnections;
+
+	private final int minPoolSize;
+
+	private final Duration interval;
+
+	private final Map<String, Integer> configuredMaximumPoolSizes = new ConcurrentHashMap<>();
+
+	private final Map<String, Integer> configuredMinimumIdles = new ConcurrentHashMap<>();
+
+	private final Map<String, Double> demands = new ConcurrentHashMap<>();
+
+	private volatile ScheduledExecutorService executor;
+
+	public HikariPoolSizeBalancer(Supplier<Map<String, HikariDataSource>> pools, int maxTotalConnections,
+			int minPoolSize, Duration interval) {
+		Assert.isTrue(minPoolSize > 0, "minPoolSize should be positive");
+		Assert.isTrue(maxTotalConnections > 0, "maxTotalConnections should be positive");
+		this.pools = pools;
+		this.maxTotalConnections = maxTotalConnections;
+		this.minPoolSize = minPoolSize;
+		this.interval = interval;
+	}
+
+	/**
+	 * Rebalance maximum sizes of started pools.
+	 */
+	public synchronized void rebalance() {
+		List<String> names = new ArrayList<>();
+		List<HikariDataSource> dataSources = new ArrayList<>();
+		this.pools.get().forEach((name, dataSource) -> {
+			HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+			if (pool != null) {
+				names.add(name);
+				dataSources.add(dataSource);
+				int demand = pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+				this.demands.merge(name, (double) demand,
+						(previous, current) -> SMOOTHING_FACTOR * current + (1 - SMOOTHING_FACTOR) * previous);
+				this.configuredMaximumPoolSizes.putIfAbsent(name, dataSource.getMaximumPoolSize());
+				this.configuredMinimumIdles.putIfAbsent(name, dataSource.getMinimumIdle());
+			}
+		});
+		this.demands.keySet().retainAll(names);
+		this.configuredMaximumPoolSizes.keySet().retainAll(names);
+		this.configuredMinimumIdles.keySet().retainAll(names);
+		int size = names.size();
+		if (size == 0) {
+			return;
+		}
+		// pools added at runtime may not fit in the budget, minimums are scaled down then
+		int minPoolSize = Math.min(this.minPoolSize, Math.max(1, this.maxTotalConnections / size));
+		int[] ceilings = new int[size];
+		int[] allocations = new int[size];
+		double[] weights = new double[size];
+		int remaining = this.maxTotalConnections;
+		for (int i = 0; i < size; i++) {
+			ceilings[i] = Math.max(minPoolSize, this.configuredMaximumPoolSizes.get(names.get(i)));
+			allocations[i] = minPoolSize;
+			// cold pools keep a share so they can warm up
+			weights[i] = this.demands.get(names.get(i)) + 1;
+			remaining -= minPoolSize;
+		}
+		while (remaining > 0) {
+			double totalWeight = 0;
+			for (int i = 0; i < size; i++) {
+				if (allocations[i] < ceilings[i]) {
+					totalWeight += weights[i];
+				}
+			}
+			if (totalWeight == 0) {
+				break;
+			}
+			int assigned = 0;
+			int heaviest = -1;
+			for (int i = 0; i < size; i++) {
+				if (allocations[i] < ceilings[i]) {
+					int share = Math.min(ceilings[i] - allocations[i],
+							(int) (remaining * weights[i] / totalWeight));
+					allocations[i] += share;
+					assigned += share;
+					if (allocations[i] < ceilings[i] && (heaviest < 0 || weights[i] > weights[heaviest])) {
+						heaviest = i;
+					}
+				}
+			}
+			if (assigned == 0) {
+				if (heaviest < 0) {
+					break;
+				}
+				// shares are rounded down, the remainder goes to the busiest pool
+				allocations[heaviest]++;
+				assigned = 1;
+			}
+			remaining -= assigned;
+		}
+		for (int i = 0; i < size; i++) {
+			HikariDataSource dataSource = dataSources.get(i);
+			HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+			// Hikari only retires idle connections above the minimum idle size
+			int minimumIdle = Math.min(this.configuredMinimumIdles.get(names.get(i)), allocations[i]);
+			if (dataSource.getMinimumIdle() != minimumIdle) {
+				config.setMinimumIdle(minimumIdle);
+			}
+			if (dataSource.getMaximumPoolSize() != allocations[i]) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Resizing pool '%s' from %d to %d".formatted(names.get(i),
+							dataSource.getMaximumPoolSize(), allocations[i]));
+				}
+				config.setMaximumPoolSize(allocations[i]);
+			}
+			HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+			if (pool.getTotalConnections() > allocations[i]) {
+				// idle connections are closed now, active ones once returned, the pool is
+				// refilled within its new sizes
+				pool.softEvictConnections();
+			}
+		}
+	}
+
+	@Override
+	public void start() {
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("additional-jdbc-adaptive-sizing-");
+		threadFactory.setDaemon(true);
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+		long period = this.interval.toMillis();
+		executor.scheduleWithFixedDelay(() -> {
+			try {
+				rebalance();
+			}
+			catch (RuntimeException ex) {
+				logger.warn("Failed to rebalance pool sizes", ex);
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+		this.executor = executor;
+	}
+
+	@Override
+	public void stop() {
+		ScheduledExecutorService executor = this.executor;
+		if (executor != null) {
+			executor.shutdownNow();
+			this.executor = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.executor != null;
+	}
+
+}
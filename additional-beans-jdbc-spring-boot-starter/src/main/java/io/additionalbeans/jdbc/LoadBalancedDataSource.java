@@ -0,0 +1,94 @@
+package io.additionalbeans.jdbc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link DataSource} balancing connections across data sources of read replicas.
+ *
+ * @author Yanming Zhou
+ */
+public class LoadBalancedDataSource extends AbstractRoutingDataSource {
+
+	private final List<String> keys;
+
+	private final List<DataSource> dataSources;
+
+	private final LoadBalancing loadBalancing;
+
+	private final AtomicInteger counter = new AtomicInteger();
+
+	public LoadBalancedDataSource(Map<String, DataSource> dataSources, LoadBalancing loadBalancing) {
+		Assert.notEmpty(dataSources, "dataSources shouldn't be empty");
+		this.keys = new ArrayList<>(dataSources.keySet());
+		this.dataSources = new ArrayList<>(dataSources.values());
+		this.loadBalancing = loadBalancing;
+		setTargetDataSources(new LinkedHashMap<>(dataSources));
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	public LoadBalancing getLoadBalancing() {
+		return this.loadBalancing;
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		int start = Math.floorMod(this.counter.getAndIncrement(), this.keys.size());
+		if (this.loadBalancing == LoadBalancing.ROUND_ROBIN) {
+			return this.keys.get(start);
+		}
+		int selected = start;
+		int minLoad = Integer.MAX_VALUE;
+		// start from the round-robin position so ties are spread across replicas
+		for (int i = 0; i < this.keys.size(); i++) {
+			int index = (start + i) % this.keys.size();
+			int load = loadOf(this.dataSources.get(index));
+			if (load < minLoad) {
+				minLoad = load;
+				selected = index;
+			}
+		}
+		return this.keys.get(selected);
+	}
+
+	private static int loadOf(DataSource dataSource) {
+		HikariDataSource hikariDataSource = DataSourceUnwrapper.unwrap(dataSource, HikariPoolMXBean.class,
+				HikariDataSource.class);
+		if (hikariDataSource != null) {
+			HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+			if (pool != null) {
+				return pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+			}
+		}
+		return 0;
+	}
+
+	public enum LoadBalancing {
+
+		/**
+		 * Select replicas in turn.
+		 */
+		ROUND_ROBIN,
+
+		/**
+		 * Select the replica with the least active and pending connections, reported by
+		 * the Hikari pool MXBean.
+		 */
+		LEAST_ACTIVE
+
+	}
+
+}
@@ -0,0 +1,95 @@
+package io.additionalbeans.jdbc;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Records timings of a {@link TracingDataSource} as Micrometer histograms tagged with the
+ * prefix, the meter registry is resolved on first use.
+ *
+ * @author Yanming Zhou
+ */
+class MicrometerTracingListener implements TracingDataSource.Listener {
+
+	private final ObjectProvider<MeterRegistry> meterRegistry;
+
+	private final String prefix;
+
+	private volatile Meters meters;
+
+	MicrometerTracingListener(ObjectProvider<MeterRegistry> meterRegistry, String prefix) {
+		this.meterRegistry = meterRegistry;
+		this.prefix = prefix;
+	}
+
+	@Override
+	public void connectionAcquired(long nanos, boolean success) {
+		Meters meters = meters();
+		if (meters != null) {
+			(success ? meters.acquired : meters.acquireFailed).record(nanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	@Override
+	public void statementExecuted(String sql, long nanos, long rows, boolean success) {
+		Meters meters = meters();
+		if (meters != null) {
+			(success ? meters.executed : meters.executeFailed).record(nanos, TimeUnit.NANOSECONDS);
+			if (rows >= 0) {
+				meters.rows.record(rows);
+			}
+		}
+	}
+
+	private Meters meters() {
+		Meters meters = this.meters;
+		if (meters == null) {
+			MeterRegistry registry = this.meterRegistry.getIfAvailable();
+			if (registry != null) {
+				meters = new Meters(registry, this.prefix);
+				this.meters = meters;
+			}
+		}
+		return meters;
+	}
+
+	private static final class Meters {
+
+		private final Timer acquired;
+
+		private final Timer acquireFailed;
+
+		private final Timer executed;
+
+		private final Timer executeFailed;
+
+		private final DistributionSummary rows;
+
+		private Meters(MeterRegistry registry, String prefix) {
+			this.acquired = timer(registry, "additional.jdbc.connection.acquire", prefix, "success");
+			this.acquireFailed = timer(registry, "additional.jdbc.connection.acquire", prefix, "failure");
+			this.executed = timer(registry, "additional.jdbc.statement.execute", prefix, "success");
+			this.executeFailed = timer(registry, "additional.jdbc.statement.execute", prefix, "failure");
+			this.rows = DistributionSummary.builder("additional.jdbc.statement.rows")
+				.description("Rows affected by updates")
+				.tag("prefix", prefix)
+				.publishPercentileHistogram()
+				.register(registry);
+		}
+
+		private static Timer timer(MeterRegistry registry, String name, String prefix, String outcome) {
+			return Timer.builder(name)
+				.tag("prefix", prefix)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(registry);
+		}
+
+	}
+
+}
@@ -0,0 +1,41 @@
+package io.additionalbeans.jdbc;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.springframework.util.Assert;
+
+/**
+ * A table of numeric shard key ranges, a shard owns keys from its lower bound inclusive
+ * to the lower bound of the next shard exclusive, the last shard owns all greater keys.
+ *
+ * @author Yanming Zhou
+ */
+public class RangeShardTable {
+
+	private final NavigableMap<Long, String> shards = new TreeMap<>();
+
+	public RangeShardTable(Map<String, Long> lowerBounds) {
+		Assert.notEmpty(lowerBounds, "lowerBounds shouldn't be empty");
+		lowerBounds.forEach((shard, lowerBound) -> {
+			String existing = this.shards.put(lowerBound, shard);
+			Assert.isTrue(existing == null,
+					() -> "Shards '%s' and '%s' have the same lower bound %d".formatted(existing, shard, lowerBound));
+		});
+	}
+
+	/**
+	 * Return the shard owning the given shard key.
+	 * @param shardKey the shard key, a number or its string representation
+	 * @return the shard
+	 */
+	public String shardFor(Object shardKey) {
+		long key = (shardKey instanceof Number number) ? number.longValue()
+				: Long.parseLong(String.valueOf(shardKey));
+		Map.Entry<Long, String> entry = this.shards.floorEntry(key);
+		Assert.isTrue(entry != null, () -> "Shard key " + key + " is below the lowest range " + this.shards.firstKey());
+		return entry.getValue();
+	}
+
+}
@@ -0,0 +1,76 @@
+package io.additionalbeans.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.util.Assert;
+
+/**
+ * A {@link DataSource} routing connections to the data source of the shard owning the
+ * shard key bound to the current thread, for data access code not built on
+ * {@link ShardedJdbcClient}, e.g. JPA or MyBatis.
+ *
+ * @author Yanming Zhou
+ */
+public class ShardedDataSource extends AbstractRoutingDataSource {
+
+	private static final ThreadLocal<String> currentShard = new ThreadLocal<>();
+
+	private final Function<Object, String> shardSelector;
+
+	public ShardedDataSource(Map<String, DataSource> dataSources, Function<Object, String> shardSelector) {
+		Assert.notEmpty(dataSources, "dataSources shouldn't be empty");
+		this.shardSelector = shardSelector;
+		setTargetDataSources(new LinkedHashMap<>(dataSources));
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	/**
+	 * Call the given action with connections of the shard owning the given shard key.
+	 * @param shardKey the shard key
+	 * @param action the action
+	 * @param <T> the type of the result
+	 * @return the result of the action
+	 */
+	public <T> T callWithShardKey(Object shardKey, Supplier<T> action) {
+		String previous = currentShard.get();
+		currentShard.set(this.shardSelector.apply(shardKey));
+		try {
+			return action.get();
+		}
+		finally {
+			if (previous != null) {
+				currentShard.set(previous);
+			}
+			else {
+				currentShard.remove();
+			}
+		}
+	}
+
+	/**
+	 * Run the given action with connections of the shard owning the given shard key.
+	 * @param shardKey the shard key
+	 * @param action the action
+	 */
+	public void runWithShardKey(Object shardKey, Runnable action) {
+		callWithShardKey(shardKey, () -> {
+			action.run();
+			return null;
+		});
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String shard = currentShard.get();
+		Assert.state(shard != null, "No shard key is bound to the current thread");
+		return shard;
+	}
+
+}
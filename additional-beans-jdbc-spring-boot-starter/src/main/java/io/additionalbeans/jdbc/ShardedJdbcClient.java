@@ -0,0 +1,125 @@
+package io.additionalbeans.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import io.additionalbeans.commons.ConsistentHashRing;
+import io.additionalbeans.commons.ScatterGather;
+
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.util.Assert;
+
+/**
+ * A facade over {@link JdbcClient}s of shard prefixes, a shard is selected by a shard
+ * key through a {@link ConsistentHashRing} or a {@link RangeShardTable}, and queries can
+ * be scattered to all shards in parallel.
+ *
+ * @author Yanming Zhou
+ */
+public class ShardedJdbcClient {
+
+	private final Map<String, JdbcClient> shards;
+
+	private final Function<Object, String> shardSelector;
+
+	private final Executor executor;
+
+	public ShardedJdbcClient(Map<String, JdbcClient> shards, int virtualNodes, Executor executor) {
+		this(shards, consistentHashing(shards.keySet(), virtualNodes), executor);
+	}
+
+	public ShardedJdbcClient(Map<String, JdbcClient> shards, Function<Object, String> shardSelector,
+			Executor executor) {
+		Assert.notEmpty(shards, "shards shouldn't be empty");
+		this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+		this.shardSelector = shardSelector;
+		this.executor = executor;
+	}
+
+	/**
+	 * Return the shards keyed by prefix.
+	 * @return the shards
+	 */
+	public Map<String, JdbcClient> getShards() {
+		return this.shards;
+	}
+
+	/**
+	 * Return the prefix of the shard owning the given shard key.
+	 * @param shardKey the shard key
+	 * @return the prefix of the shard
+	 */
+	public String shardFor(Object shardKey) {
+		return this.shardSelector.apply(shardKey);
+	}
+
+	/**
+	 * Return the client of the shard owning the given shard key.
+	 * @param shardKey the shard key
+	 * @return the client of the shard
+	 */
+	public JdbcClient forKey(Object shardKey) {
+		return this.shards.get(shardFor(shardKey));
+	}
+
+	/**
+	 * Execute the given operation on every shard in parallel.
+	 * @param operation the operation
+	 * @param <T> the type of the result
+	 * @return the results keyed by prefix, in shard order
+	 */
+	public <T> Map<String, T> executeAll(Function<JdbcClient, T> operation) {
+		return ScatterGather.execute(this.shards, (prefix, client) -> operation.apply(client), this.executor);
+	}
+
+	/**
+	 * Execute the given query on every shard in parallel and merge the results in shard
+	 * order.
+	 * @param query the query
+	 * @param <T> the type of the rows
+	 * @return the merged rows
+	 */
+	public <T> List<T> queryAll(Function<JdbcClient, List<T>> query) {
+		List<T> rows = new ArrayList<>();
+		executeAll(query).values().forEach(rows::addAll);
+		return rows;
+	}
+
+	/**
+	 * Return a shard selector placing shard keys on a {@link ConsistentHashRing} of the
+	 * given shards.
+	 * @param shards the shards
+	 * @param virtualNodes the number of virtual nodes per shard
+	 * @return the shard selector
+	 */
+	public static Function<Object, String> consistentHashing(Collection<String> shards, int virtualNodes) {
+		Map<String, String> nodes = new LinkedHashMap<>();
+		shards.forEach((shard) -> nodes.put(shard, shard));
+		ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes, virtualNodes);
+		return (shardKey) -> ring.nodeNameFor(String.valueOf(shardKey));
+	}
+
+	/**
+	 * How shard keys are mapped to shards.
+	 */
+	public enum ShardingStrategy {
+
+		/**
+		 * Place shard keys on a consistent hash ring of shards.
+		 */
+		CONSISTENT_HASH,
+
+		/**
+		 * Look up numeric shard keys in a table of ranges.
+		 */
+		RANGE
+
+	}
+
+}
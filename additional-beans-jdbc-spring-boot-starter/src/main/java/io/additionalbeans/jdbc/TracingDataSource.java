@@ -0,0 +1,307 @@
+package io.additionalbeans.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * A {@link DataSource} recording connection acquisition time, statement execution time
+ * and update counts to a {@link Listener}, statements slower than the threshold are
+ * logged at warn level.
+ * <p>
+ * Connections, statements and database metadata are proxied so their back references
+ * never expose unproxied objects. Result sets are not proxied to keep reading rows free
+ * of overhead, so {@link ResultSet#getStatement()} returns the target statement.
+ *
+ * @author Yanming Zhou
+ */
+public class TracingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+	private static final Log logger = LogFactory.getLog(TracingDataSource.class);
+
+	private static final Class<?>[] CONNECTION_INTERFACES = { Connection.class };
+
+	private final String prefix;
+
+	private final long slowQueryThresholdNanos;
+
+	private final Listener listener;
+
+	public TracingDataSource(DataSource targetDataSource, String prefix, Duration slowQueryThreshold,
+			Listener listener) {
+		super(targetDataSource);
+		this.prefix = prefix;
+		this.slowQueryThresholdNanos = slowQueryThreshold.toNanos();
+		this.listener = listener;
+	}
+
+	public String getPrefix() {
+		return this.prefix;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			Connection connection = obtainTargetDataSource().getConnection();
+			success = true;
+			return proxy(connection);
+		}
+		finally {
+			this.listener.connectionAcquired(System.nanoTime() - start, success);
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		long start = System.nanoTime();
+		boolean success = false;
+		try {
+			Connection connection = obtainTargetDataSource().getConnection(username, password);
+			success = true;
+			return proxy(connection);
+		}
+		finally {
+			this.listener.connectionAcquired(System.nanoTime() - start, success);
+		}
+	}
+
+	/**
+	 * Close the target data source, e.g. shut down its pool.
+	 * @throws Exception if the target data source failed to close
+	 */
+	@Override
+	public void close() throws Exception {
+		if (obtainTargetDataSource() instanceof AutoCloseable closeable) {
+			closeable.close();
+		}
+	}
+
+	private Connection proxy(Connection connection) {
+		return (Connection) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), CONNECTION_INTERFACES,
+				new ConnectionInvocationHandler(connection));
+	}
+
+	private void executed(String sql, long nanos, long rows, boolean success) {
+		this.listener.statementExecuted(sql, nanos, rows, success);
+		if (nanos >= this.slowQueryThresholdNanos) {
+			logger.warn("Slow query on prefix '%s' took %d ms: %s".formatted(this.prefix, nanos / 1_000_000, sql));
+		}
+	}
+
+	/**
+	 * Proxy the given object, e.g. database metadata, returning the given owner proxy
+	 * instead of the target owner from its back reference method, e.g.
+	 * {@code getConnection()}.
+	 */
+	private static Object proxyBackReference(Object target, Class<?> targetInterface, String backReferenceMethod,
+			Object owner) {
+		if (target == null) {
+			return null;
+		}
+		return Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[] { targetInterface },
+				(proxy, method, args) -> switch (method.getName()) {
+					case "equals" -> proxy == args[0];
+					case "hashCode" -> System.identityHashCode(proxy);
+					case "unwrap" -> ((Class<?>) args[0]).isInstance(proxy) ? proxy
+							: TracingDataSource.invoke(target, method, args);
+					case "isWrapperFor" -> ((Class<?>) args[0]).isInstance(proxy)
+							|| (boolean) TracingDataSource.invoke(target, method, args);
+					default -> method.getName().equals(backReferenceMethod) ? owner
+							: TracingDataSource.invoke(target, method, args);
+				});
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+	/**
+	 * Receives timings of a {@link TracingDataSource}.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called after a connection is acquired from the target data source.
+		 * @param nanos the acquisition time in nanoseconds
+		 * @param success whether a connection is acquired
+		 */
+		void connectionAcquired(long nanos, boolean success);
+
+		/**
+		 * Called after a statement is executed.
+		 * @param sql the SQL, may be {@code null} for batches of plain statements
+		 * @param nanos the execution time in nanoseconds
+		 * @param rows the number of rows affected, {@code -1} for queries
+		 * @param success whether the statement succeeded
+		 */
+		void statementExecuted(String sql, long nanos, long rows, boolean success);
+
+	}
+
+	private final class ConnectionInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		private ConnectionInvocationHandler(Connection target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "equals" -> {
+					return proxy == args[0];
+				}
+				case "hashCode" -> {
+					return System.identityHashCode(proxy);
+				}
+				case "unwrap" -> {
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+				}
+				case "isWrapperFor" -> {
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+				}
+				case "getMetaData" -> {
+					return proxyBackReference(TracingDataSource.invoke(this.target, method, args),
+							DatabaseMetaData.class, "getConnection", proxy);
+				}
+				case "createStatement" -> {
+					return proxy(proxy, (Statement) TracingDataSource.invoke(this.target, method, args), null,
+							Statement.class);
+				}
+				case "prepareStatement" -> {
+					return proxy(proxy, (Statement) TracingDataSource.invoke(this.target, method, args),
+							(String) args[0], PreparedStatement.class);
+				}
+				case "prepareCall" -> {
+					return proxy(proxy, (Statement) TracingDataSource.invoke(this.target, method, args),
+							(String) args[0], CallableStatement.class);
+				}
+				default -> {
+				}
+			}
+			return TracingDataSource.invoke(this.target, method, args);
+		}
+
+		private Object proxy(Object connection, Statement statement, String sql, Class<?> statementInterface) {
+			return Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+					new Class<?>[] { statementInterface }, new StatementInvocationHandler(connection, statement, sql));
+		}
+
+	}
+
+	private final class StatementInvocationHandler implements InvocationHandler {
+
+		private final Object connection;
+
+		private final Statement target;
+
+		private final String sql;
+
+		private StatementInvocationHandler(Object connection, Statement target, String sql) {
+			this.connection = connection;
+			this.target = target;
+			this.sql = sql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			switch (name) {
+				case "equals" -> {
+					return proxy == args[0];
+				}
+				case "hashCode" -> {
+					return System.identityHashCode(proxy);
+				}
+				case "getConnection" -> {
+					return this.connection;
+				}
+				case "unwrap" -> {
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return proxy;
+					}
+				}
+				case "isWrapperFor" -> {
+					if (((Class<?>) args[0]).isInstance(proxy)) {
+						return true;
+					}
+				}
+				default -> {
+				}
+			}
+			if (!name.startsWith("execute")) {
+				return TracingDataSource.invoke(this.target, method, args);
+			}
+			String sql = (args != null && args.length > 0 && args[0] instanceof String statementSql) ? statementSql
+					: this.sql;
+			long start = System.nanoTime();
+			boolean success = false;
+			Object result = null;
+			try {
+				result = TracingDataSource.invoke(this.target, method, args);
+				success = true;
+				return result;
+			}
+			finally {
+				executed(sql, System.nanoTime() - start, rows(name, result), success);
+			}
+		}
+
+		private long rows(String method, Object result) throws SQLException {
+			if (result instanceof Integer count) {
+				return count;
+			}
+			if (result instanceof Long count) {
+				return count;
+			}
+			if (result instanceof int[] counts) {
+				long rows = 0;
+				for (int count : counts) {
+					rows += Math.max(count, 0);
+				}
+				return rows;
+			}
+			if (result instanceof long[] counts) {
+				long rows = 0;
+				for (long count : counts) {
+					rows += Math.max(count, 0);
+				}
+				return rows;
+			}
+			if (result instanceof Boolean isResultSet && !isResultSet && "execute".equals(method)) {
+				return this.target.getUpdateCount();
+			}
+			return -1;
+		}
+
+	}
+
+}
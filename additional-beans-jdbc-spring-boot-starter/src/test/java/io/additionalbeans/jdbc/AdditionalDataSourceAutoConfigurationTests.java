@@ -1,14 +1,36 @@
 package io.additionalbeans.jdbc;
 
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.sql.DataSource;
 
+import com.zaxxer.hikari.HikariConfigMXBean;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.additionalbeans.commons.AdditionalBeansRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.aot.AotServices;
+import org.springframework.beans.factory.aot.BeanRegistrationExcludeFilter;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
@@ -17,13 +39,24 @@ import org.springframework.boot.autoconfigure.jdbc.JdbcClientAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
 import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
 import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.awaitility.Awaitility.await;
 
 /**
  * @author Yanming Zhou
@@ -186,4 +219,543 @@ class AdditionalDataSourceAutoConfigurationTests {
 		});
 	}
 
+	@Test
+	void testAdditionalBeansAreExcludedFromAotProcessing() {
+		runner.run((ctx) -> {
+			AotServices<BeanRegistrationExcludeFilter> excludeFilters = AotServices.factories()
+				.load(BeanRegistrationExcludeFilter.class);
+			assertThat(excludeFilters).anySatisfy((filter) -> {
+				assertThat(filter.isExcludedFromAotProcessing(RegisteredBean.of(ctx.getBeanFactory(), "fooDataSource")))
+					.isTrue();
+				assertThat(filter.isExcludedFromAotProcessing(RegisteredBean.of(ctx.getBeanFactory(), "dataSource")))
+					.isFalse();
+			});
+		});
+	}
+
+	@Test
+	void testLazyPrefix() {
+		runner.withPropertyValues("additional.jdbc.foo.lazy=true").run((ctx) -> {
+			assertThat(ctx.getBeanFactory().getBeanDefinition("fooDataSource").isLazyInit()).isTrue();
+			assertThat(ctx.getBeanFactory().getBeanDefinition("barDataSource").isLazyInit()).isFalse();
+			assertThat(ctx.getBeanFactory().containsSingleton("fooJdbcTemplate")).isFalse();
+			assertThat(ctx.getBeanFactory().containsSingleton("barJdbcTemplate")).isTrue();
+			assertThat(ctx.getBean("fooJdbcTemplate", JdbcTemplate.class).getDataSource())
+				.isSameAs(ctx.getBean("fooDataSource"));
+		});
+	}
+
+	@Test
+	void testLazyPrefixIsBoundToCurrentProperties() {
+		runner.withPropertyValues("additional.jdbc.foo.lazy=true").run((ctx) -> {
+			// applied to the property source of the runner in place
+			TestPropertyValues
+				.of("foo.datasource.hikari.maximum-pool-size=30", "foo.datasource.hikari.connection-timeout=12345")
+				.applyTo(ctx.getEnvironment());
+			HikariDataSource fooDataSource = ctx.getBean("fooDataSource", HikariDataSource.class);
+			assertThat(fooDataSource.getMaximumPoolSize()).isEqualTo(30);
+			assertThat(fooDataSource.getConnectionTimeout()).isEqualTo(12345);
+			assertThat(fooDataSource.getMinimumIdle()).isEqualTo(20);
+		});
+	}
+
+	@Test
+	void testLazyPrefixIsCreatedForEagerInjectionPoints() {
+		runner.withPropertyValues("additional.jdbc.lazy=true")
+			.withBean(LazyJdbcTemplateClient.class)
+			.withBean(EagerJdbcTemplateClient.class)
+			.run((ctx) -> {
+				assertThat(ctx.getBeanFactory().containsSingleton("fooJdbcTemplate")).isFalse();
+				// lazy-init is not honored for beans referenced by eagerly created beans
+				assertThat(ctx.getBeanFactory().containsSingleton("barJdbcTemplate")).isTrue();
+				assertThat(ctx.getBean(LazyJdbcTemplateClient.class).jdbcTemplate.getDataSource())
+					.isSameAs(ctx.getBean("fooDataSource"));
+				assertThat(ctx.getBeanFactory().containsSingleton("fooJdbcTemplate")).isTrue();
+			});
+	}
+
+	@Test
+	void testLazyModule() {
+		runner.withPropertyValues("additional.jdbc.lazy=true", "additional.jdbc.bar.lazy=false").run((ctx) -> {
+			assertThat(ctx.getBeanFactory().getBeanDefinition("fooDataSource").isLazyInit()).isTrue();
+			assertThat(ctx.getBeanFactory().getBeanDefinition("barDataSource").isLazyInit()).isFalse();
+		});
+	}
+
+	@Test
+	void testParallelBootstrap() {
+		runner.withPropertyValues("additional.jdbc.parallel-bootstrap=true").run((ctx) -> {
+			assertThat(ctx).hasNotFailed();
+			assertThat(ctx.getBeanFactory().containsSingleton("fooDataSource")).isTrue();
+			assertThat(ctx.getBeanFactory().containsSingleton("fooJdbcClient")).isTrue();
+			assertThat(ctx.getBeanFactory().containsSingleton("barDataSource")).isTrue();
+			assertThat(ctx.getBeanFactory().containsSingleton("barJdbcClient")).isTrue();
+		});
+	}
+
+	@Test
+	void testStartupInstrumentation() {
+		BufferingApplicationStartup applicationStartup = new BufferingApplicationStartup(10000);
+		runner.withInitializer((ctx) -> ctx.setApplicationStartup(applicationStartup)).run((ctx) -> {
+			assertThat(applicationStartup.getBufferedTimeline().getEvents())
+				.map(StartupTimeline.TimelineEvent::getStartupStep)
+				.anySatisfy((step) -> {
+					assertThat(step.getName()).isEqualTo("additional.jdbc.instantiate");
+					assertThat(step.getTags()).anySatisfy((tag) -> {
+						assertThat(tag.getKey()).isEqualTo("beanName");
+						assertThat(tag.getValue()).isEqualTo("fooDataSource");
+					});
+				})
+				.anySatisfy((step) -> assertThat(step.getName()).isEqualTo("additional.jdbc.bind"));
+			assertThat(ctx.getBean(AdditionalJdbcPostProcessor.class).getCreationTimes())
+				.containsKeys("fooDataSource", "fooJdbcTemplate", "barDataSource", "barJdbcTemplate")
+				// instantiated by the container, its binding is accounted
+				.containsKey("fooJdbcProperties");
+			assertThat(ctx.getBeanFactory().getBeanDefinition("fooJdbcProperties"))
+				.isInstanceOfSatisfying(RootBeanDefinition.class,
+						(bd) -> assertThat(bd.getInstanceSupplier()).isNull());
+		});
+	}
+
+	@Test
+	void testReadWriteRouting() {
+		runner.withPropertyValues("additional.jdbc.routing.read-replicas=foo,bar").run((ctx) -> {
+			DataSource routingDataSource = ctx.getBean(AdditionalJdbcPostProcessor.ROUTING_DATA_SOURCE_BEAN_NAME,
+					DataSource.class);
+			assertThat(ctx.getBean(DataSource.class)).isNotSameAs(routingDataSource);
+			TransactionTemplate transactionTemplate = new TransactionTemplate(
+					ctx.getBean(AdditionalJdbcPostProcessor.ROUTING_TRANSACTION_MANAGER_BEAN_NAME,
+							PlatformTransactionManager.class));
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource);
+			ConnectionCallback<String> url = (con) -> con.getMetaData().getURL();
+			assertThat(transactionTemplate.execute((status) -> jdbcTemplate.execute(url))).endsWith("default");
+			transactionTemplate.setReadOnly(true);
+			assertThat(transactionTemplate.execute((status) -> jdbcTemplate.execute(url))).endsWith("foo");
+			assertThat(transactionTemplate.execute((status) -> jdbcTemplate.execute(url))).endsWith("bar");
+			assertThat(transactionTemplate.execute((status) -> jdbcTemplate.execute(url))).endsWith("foo");
+		});
+	}
+
+	@Test
+	void testReadWriteRoutingWithLeastActiveLoadBalancing() {
+		runner
+			.withPropertyValues("additional.jdbc.routing.read-replicas=foo,bar", "additional.jdbc.routing.primary=foo",
+					"additional.jdbc.routing.load-balancing=least-active")
+			.run((ctx) -> {
+				DataSource routingDataSource = ctx
+					.getBean(AdditionalJdbcPostProcessor.ROUTING_DATA_SOURCE_BEAN_NAME, DataSource.class);
+				TransactionTemplate transactionTemplate = new TransactionTemplate(
+						ctx.getBean(AdditionalJdbcPostProcessor.ROUTING_TRANSACTION_MANAGER_BEAN_NAME,
+								PlatformTransactionManager.class));
+				JdbcTemplate jdbcTemplate = new JdbcTemplate(routingDataSource);
+				ConnectionCallback<String> url = (con) -> con.getMetaData().getURL();
+				assertThat(transactionTemplate.execute((status) -> jdbcTemplate.execute(url))).endsWith("foo");
+				transactionTemplate.setReadOnly(true);
+				try (Connection ignored = ctx.getBean("fooDataSource", DataSource.class).getConnection()) {
+					assertThat(transactionTemplate.execute((status) -> jdbcTemplate.execute(url))).endsWith("bar");
+					assertThat(transactionTemplate.execute((status) -> jdbcTemplate.execute(url))).endsWith("bar");
+				}
+			});
+	}
+
+	@Test
+	void testShardedJdbcClient() {
+		runner.withPropertyValues("additional.jdbc.sharding.shards=foo,bar").run((ctx) -> {
+			ShardedJdbcClient shardedJdbcClient = ctx.getBean(AdditionalJdbcPostProcessor.SHARDED_JDBC_CLIENT_BEAN_NAME,
+					ShardedJdbcClient.class);
+			assertThat(shardedJdbcClient.getShards()).containsOnlyKeys("foo", "bar");
+			assertThat(shardedJdbcClient.getShards().get("foo")).isSameAs(ctx.getBean("fooJdbcClient"));
+			shardedJdbcClient.executeAll((client) -> client.sql("create table if not exists t (id int)").update());
+			for (int id = 0; id < 100; id++) {
+				shardedJdbcClient.forKey(id).sql("insert into t values (?)").param(id).update();
+			}
+			for (int id = 0; id < 100; id++) {
+				assertThat(shardedJdbcClient.getShards()
+					.get(shardedJdbcClient.shardFor(id))
+					.sql("select count(*) from t where id = ?")
+					.param(id)
+					.query(Integer.class)
+					.single()).isEqualTo(1);
+			}
+			assertThat(shardedJdbcClient.executeAll((client) -> client.sql("select count(*) from t")
+				.query(Integer.class)
+				.single())).allSatisfy((shard, count) -> assertThat(count).isPositive());
+			assertThat(shardedJdbcClient
+				.queryAll((client) -> client.sql("select id from t").query(Integer.class).list())).hasSize(100)
+				.doesNotHaveDuplicates();
+		});
+	}
+
+	@Test
+	void testRangeShardedJdbcClient() {
+		runner
+			.withPropertyValues("additional.jdbc.sharding.shards=foo,bar", "additional.jdbc.sharding.strategy=range",
+					"additional.jdbc.sharding.ranges.foo=0", "additional.jdbc.sharding.ranges.bar=1000",
+					"additional.jdbc.sharding.concurrency-limit=1")
+			.run((ctx) -> {
+				ShardedJdbcClient shardedJdbcClient = ctx
+					.getBean(AdditionalJdbcPostProcessor.SHARDED_JDBC_CLIENT_BEAN_NAME, ShardedJdbcClient.class);
+				assertThat(shardedJdbcClient.shardFor(0)).isEqualTo("foo");
+				assertThat(shardedJdbcClient.shardFor(999L)).isEqualTo("foo");
+				assertThat(shardedJdbcClient.shardFor("1000")).isEqualTo("bar");
+				assertThat(shardedJdbcClient.forKey(Long.MAX_VALUE)).isSameAs(ctx.getBean("barJdbcClient"));
+				assertThatIllegalArgumentException().isThrownBy(() -> shardedJdbcClient.shardFor(-1));
+				assertThat(ctx.getBean("jdbcShardingTaskExecutor", SimpleAsyncTaskExecutor.class)
+					.getConcurrencyLimit()).isEqualTo(1);
+				assertThat(
+						shardedJdbcClient.executeAll((client) -> client.sql("select 1").query(Integer.class).single()))
+					.containsOnly(Map.entry("foo", 1), Map.entry("bar", 1));
+			});
+	}
+
+	@Test
+	void testRangeShardingRequiresRangesOfShards() {
+		runner
+			.withPropertyValues("additional.jdbc.sharding.shards=foo,bar", "additional.jdbc.sharding.strategy=range",
+					"additional.jdbc.sharding.ranges.foo=0")
+			.run((ctx) -> assertThat(ctx).getFailure().hasMessageContaining("should be defined for shards"));
+	}
+
+	@Test
+	void testShardedDataSource() {
+		runner.withPropertyValues("additional.jdbc.sharding.shards=foo,bar").run((ctx) -> {
+			ShardedJdbcClient shardedJdbcClient = ctx.getBean(AdditionalJdbcPostProcessor.SHARDED_JDBC_CLIENT_BEAN_NAME,
+					ShardedJdbcClient.class);
+			ShardedDataSource shardedDataSource = ctx.getBean(AdditionalJdbcPostProcessor.SHARDED_DATA_SOURCE_BEAN_NAME,
+					ShardedDataSource.class);
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(shardedDataSource);
+			for (int id = 0; id < 10; id++) {
+				assertThat(shardedDataSource.callWithShardKey(id,
+						() -> jdbcTemplate.queryForObject("select database()", String.class)))
+					.isEqualToIgnoringCase(shardedJdbcClient.shardFor(id));
+			}
+			assertThatIllegalStateException().isThrownBy(shardedDataSource::getConnection)
+				.withMessageContaining("No shard key");
+		});
+	}
+
+	@Test
+	void testWarmUp() {
+		runner
+			.withPropertyValues("additional.jdbc.foo.warm-up.enabled=true",
+					"additional.jdbc.foo.warm-up.validation-query=select 1",
+					"additional.jdbc.warm-up.concurrency-limit=2")
+			.run((ctx) -> {
+				assertThat(ctx).hasNotFailed();
+				HikariPoolMXBean fooPool = ctx.getBean("fooDataSource", HikariDataSource.class).getHikariPoolMXBean();
+				assertThat(fooPool).isNotNull();
+				assertThat(fooPool.getTotalConnections()).isGreaterThanOrEqualTo(20);
+				assertThat(fooPool.getActiveConnections()).isZero();
+				assertThat(ctx.getBean("barDataSource", HikariDataSource.class).getHikariPoolMXBean()).isNull();
+			});
+	}
+
+	@Test
+	void testWarmUpFailureDoesNotFailStartup() {
+		runner
+			.withPropertyValues("additional.jdbc.warm-up.enabled=true",
+					"additional.jdbc.warm-up.validation-query=select * from nonexistent")
+			.run((ctx) -> assertThat(ctx).hasNotFailed());
+	}
+
+	@Test
+	void testSharedHikariExecutor() {
+		AtomicReference<ScheduledExecutorService> executor = new AtomicReference<>();
+		runner.withPropertyValues("additional.jdbc.hikari.shared-executor.enabled=true").run((ctx) -> {
+			HikariDataSource fooDataSource = ctx.getBean("fooDataSource", HikariDataSource.class);
+			HikariDataSource barDataSource = ctx.getBean("barDataSource", HikariDataSource.class);
+			executor.set(fooDataSource.getScheduledExecutor());
+			assertThat(executor.get()).isNotNull().isSameAs(barDataSource.getScheduledExecutor());
+			assertThat(((HikariDataSource) ctx.getBean(DataSource.class)).getScheduledExecutor()).isNull();
+			try (Connection ignored = fooDataSource.getConnection()) {
+				assertThat(executor.get().isShutdown()).isFalse();
+			}
+		});
+		assertThat(executor.get().isShutdown()).isTrue();
+	}
+
+	@Test
+	void testAddAndRemovePrefix() {
+		runner.run((ctx) -> {
+			AdditionalBeansRegistry registry = ctx.getBean(AdditionalJdbcPostProcessor.class);
+			TestPropertyValues.of("baz.datasource.url=jdbc:h2:mem:baz").applyTo(ctx.getEnvironment());
+			registry.addPrefix("baz");
+			assertThat(registry.getPrefixes()).containsExactly("foo", "bar", "baz");
+			HikariDataSource bazDataSource = ctx.getBean("bazDataSource", HikariDataSource.class);
+			assertThat(bazDataSource.getJdbcUrl()).endsWith("baz");
+			assertThat(ctx.getBean("bazJdbcClient", JdbcClient.class).sql("select 1").query(Integer.class).single())
+				.isEqualTo(1);
+			assertThat(ctx.getBean("bazTransactionManager")).isInstanceOf(PlatformTransactionManager.class);
+
+			HikariDataSource fooDataSource = ctx.getBean("fooDataSource", HikariDataSource.class);
+			registry.removePrefix("foo");
+			assertThat(registry.getPrefixes()).containsExactly("bar", "baz");
+			assertThat(fooDataSource.isClosed()).isTrue();
+			assertThat(ctx.containsBean("fooDataSource")).isFalse();
+			assertThat(ctx.containsBean("fooJdbcTemplate")).isFalse();
+
+			TestPropertyValues.of("additional.jdbc.prefixes=bar,qux").applyTo(ctx.getEnvironment());
+			registry.refreshPrefixes();
+			assertThat(registry.getPrefixes()).containsExactly("bar", "qux");
+			assertThat(bazDataSource.isClosed()).isTrue();
+			assertThat(ctx.getBean("quxJdbcTemplate")).isInstanceOf(JdbcTemplate.class);
+		});
+	}
+
+	@Test
+	void testRemovePrefixReferencedByModuleBeans() {
+		runner
+			.withPropertyValues("additional.jdbc.sharding.shards=foo,bar", "additional.jdbc.routing.read-replicas=bar")
+			.run((ctx) -> {
+				AdditionalBeansRegistry registry = ctx.getBean(AdditionalJdbcPostProcessor.class);
+				// referenced by both the sharded client and the sharded data source
+				assertThatIllegalStateException().isThrownBy(() -> registry.removePrefix("foo"))
+					.withMessageMatching(".*'(%s|%s)'.*".formatted(
+							AdditionalJdbcPostProcessor.SHARDED_JDBC_CLIENT_BEAN_NAME,
+							AdditionalJdbcPostProcessor.SHARDED_DATA_SOURCE_BEAN_NAME));
+				assertThatIllegalStateException().isThrownBy(() -> registry.removePrefix("bar"))
+					.withMessageContaining("'bar'");
+				TestPropertyValues.of("additional.jdbc.prefixes=foo").applyTo(ctx.getEnvironment());
+				assertThatIllegalStateException().isThrownBy(registry::refreshPrefixes);
+				assertThat(registry.getPrefixes()).containsExactly("foo", "bar");
+				assertThat(ctx.getBean("fooDataSource", HikariDataSource.class).isClosed()).isFalse();
+				ShardedJdbcClient shardedJdbcClient = ctx
+					.getBean(AdditionalJdbcPostProcessor.SHARDED_JDBC_CLIENT_BEAN_NAME, ShardedJdbcClient.class);
+				assertThat(shardedJdbcClient.forKey(1).sql("select 1").query(Integer.class).single()).isEqualTo(1);
+			});
+	}
+
+	@Test
+	void testAdaptiveSizing() {
+		runner
+			.withPropertyValues("additional.jdbc.adaptive-sizing.enabled=true",
+					"additional.jdbc.adaptive-sizing.max-total-connections=10")
+			.run((ctx) -> {
+				HikariPoolSizeBalancer balancer = ctx.getBean(
+						AdditionalJdbcPostProcessor.HIKARI_POOL_SIZE_BALANCER_BEAN_NAME, HikariPoolSizeBalancer.class);
+				assertThat(balancer.isRunning()).isTrue();
+				HikariDataSource fooDataSource = ctx.getBean("fooDataSource", HikariDataSource.class);
+				HikariDataSource barDataSource = ctx.getBean("barDataSource", HikariDataSource.class);
+				barDataSource.getConnection().close();
+				List<Connection> connections = new ArrayList<>();
+				for (int i = 0; i < 3; i++) {
+					connections.add(fooDataSource.getConnection());
+				}
+				// pools are filled up to their minimum idle sizes 20 and 60
+				await().atMost(Duration.ofSeconds(10))
+					.until(() -> totalConnections(fooDataSource) == 20 && totalConnections(barDataSource) == 60);
+				balancer.rebalance();
+				for (Connection connection : connections) {
+					connection.close();
+				}
+				assertThat(fooDataSource.getMaximumPoolSize() + barDataSource.getMaximumPoolSize()).isEqualTo(10);
+				assertThat(fooDataSource.getMaximumPoolSize()).isGreaterThan(barDataSource.getMaximumPoolSize());
+				assertThat(fooDataSource.getMinimumIdle()).isEqualTo(fooDataSource.getMaximumPoolSize());
+				assertThat(barDataSource.getMinimumIdle()).isEqualTo(barDataSource.getMaximumPoolSize());
+				await().atMost(Duration.ofSeconds(10))
+					.untilAsserted(() -> assertThat(totalConnections(fooDataSource) + totalConnections(barDataSource))
+						.isLessThanOrEqualTo(10));
+			});
+	}
+
+	@Test
+	void testAdaptiveSizingRequiresMinimumPoolSizesWithinBudget() {
+		runner
+			.withPropertyValues("additional.jdbc.adaptive-sizing.enabled=true",
+					"additional.jdbc.adaptive-sizing.max-total-connections=5",
+					"additional.jdbc.adaptive-sizing.min-pool-size=3")
+			.run((ctx) -> assertThat(ctx).getFailure()
+				.rootCause()
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("max-total-connections should not be less than 6"));
+	}
+
+	@Test
+	void testAdaptiveSizingScalesDownMinimumPoolSizes() throws SQLException {
+		HikariDataSource foo = new HikariDataSource();
+		foo.setJdbcUrl("jdbc:h2:mem:foo");
+		HikariDataSource bar = new HikariDataSource();
+		bar.setJdbcUrl("jdbc:h2:mem:bar");
+		try (foo; bar) {
+			foo.getConnection().close();
+			bar.getConnection().close();
+			// e.g. a prefix added at runtime
+			new HikariPoolSizeBalancer(() -> Map.of("foo", foo, "bar", bar), 5, 3, Duration.ofMinutes(1)).rebalance();
+			assertThat(foo.getMaximumPoolSize() + bar.getMaximumPoolSize()).isEqualTo(5);
+			assertThat(foo.getMaximumPoolSize()).isGreaterThanOrEqualTo(2);
+			assertThat(bar.getMaximumPoolSize()).isGreaterThanOrEqualTo(2);
+		}
+	}
+
+	@Test
+	void testBatchingJdbcTemplate() {
+		runner
+			.withPropertyValues("additional.jdbc.foo.batching.enabled=true", "additional.jdbc.batching.batch-size=10",
+					"additional.jdbc.batching.flush-interval=1h")
+			.run((ctx) -> {
+				assertThat(ctx.containsBean("barBatchingJdbcTemplate")).isFalse();
+				BatchingJdbcTemplate batchingJdbcTemplate = ctx.getBean("fooBatchingJdbcTemplate",
+						BatchingJdbcTemplate.class);
+				JdbcTemplate jdbcTemplate = ctx.getBean("fooJdbcTemplate", JdbcTemplate.class);
+				assertThat(batchingJdbcTemplate.getJdbcOperations()).isSameAs(jdbcTemplate);
+				jdbcTemplate.execute("create table if not exists batching (id int)");
+				List<CompletableFuture<Integer>> futures = new ArrayList<>();
+				for (int i = 0; i < 25; i++) {
+					futures.add(batchingJdbcTemplate.update("insert into batching values (?)", i));
+				}
+				assertThat(futures.get(19).get(10, TimeUnit.SECONDS)).isEqualTo(1);
+				// the last batch is below the batch size
+				assertThat(futures.get(24)).isNotDone();
+				batchingJdbcTemplate.flush();
+				assertThat(batchingJdbcTemplate.getPendingCount()).isZero();
+				assertThat(futures).allSatisfy((future) -> assertThat(future).isCompletedWithValue(1));
+				assertThat(jdbcTemplate.queryForObject("select count(*) from batching", Integer.class)).isEqualTo(25);
+			});
+	}
+
+	@Test
+	void testBatchingJdbcTemplateRejectsUpdatesOnceDestroyed() {
+		runner
+			.withPropertyValues("additional.jdbc.foo.batching.enabled=true", "additional.jdbc.batching.batch-size=10",
+					"additional.jdbc.batching.flush-interval=1h")
+			.run((ctx) -> {
+				BatchingJdbcTemplate batchingJdbcTemplate = ctx.getBean("fooBatchingJdbcTemplate",
+						BatchingJdbcTemplate.class);
+				ctx.getBean("fooJdbcTemplate", JdbcTemplate.class)
+					.execute("create table if not exists batching (id int)");
+				CompletableFuture<Integer> future = batchingJdbcTemplate.update("insert into batching values (?)", 1);
+				batchingJdbcTemplate.destroy();
+				// pending updates are executed by destroy()
+				assertThat(future).isCompletedWithValue(1);
+				assertThatIllegalStateException()
+					.isThrownBy(() -> batchingJdbcTemplate.update("insert into batching values (?)", 2))
+					.withMessageContaining("destroyed");
+				assertThatIllegalStateException()
+					.isThrownBy(() -> batchingJdbcTemplate.tryUpdate("insert into batching values (?)", 3))
+					.withMessageContaining("destroyed");
+				assertThat(batchingJdbcTemplate.getPendingCount()).isZero();
+			});
+	}
+
+	@Test
+	void testCachingJdbcClient() {
+		runner.withBean(SimpleMeterRegistry.class)
+			.withPropertyValues("additional.jdbc.foo.cache.enabled=true", "additional.jdbc.cache.ttl=1h")
+			.run((ctx) -> {
+				assertThat(ctx.containsBean("barCachingJdbcClient")).isFalse();
+				CachingJdbcClient client = ctx.getBean("fooCachingJdbcClient", CachingJdbcClient.class);
+				JdbcClient jdbcClient = ctx.getBean("fooJdbcClient", JdbcClient.class);
+				assertThat(client.getJdbcClient()).isSameAs(jdbcClient);
+				jdbcClient.sql("create table if not exists cached (id int)").update();
+				jdbcClient.sql("delete from cached").update();
+				jdbcClient.sql("insert into cached values (1)").update();
+				String sql = "select id from cached where id > ? order by id";
+				assertThat(client.query(sql, Integer.class, 0)).containsExactly(1);
+				jdbcClient.sql("insert into cached values (2)").update();
+				assertThat(client.query(sql, Integer.class, 0)).containsExactly(1);
+				assertThat(client.getStats().hitCount()).isEqualTo(1);
+				client.invalidateTable("PUBLIC.CACHED");
+				assertThat(client.query(sql, Integer.class, 0)).containsExactly(1, 2);
+				client.update("insert into cached values (?)", 3);
+				assertThat(client.query(sql, Integer.class, 0)).containsExactly(1, 2, 3);
+				assertThat(client.query("select id from cached where id > :id order by id", Map.of("id", 2),
+						Integer.class))
+					.containsExactly(3);
+				assertThat(client.query(sql, "id", (rs, rowNum) -> rs.getInt(1), 2)).containsExactly(3);
+				assertThat(client.query(sql, "negatedId", (rs, rowNum) -> -rs.getInt(1), 2)).containsExactly(-3);
+				// array parameters are compared by content
+				String inSql = "select id from cached where id = any(?) order by id";
+				assertThat(client.query(inSql, Integer.class, (Object) new Integer[] { 1, 2 })).containsExactly(1, 2);
+				long hits = client.getStats().hitCount();
+				assertThat(client.query(inSql, Integer.class, (Object) new Integer[] { 1, 2 })).containsExactly(1, 2);
+				assertThat(client.getStats().hitCount()).isEqualTo(hits + 1);
+				// rows read before an invalidation are not cached
+				String countSql = "select count(*) from cached";
+				assertThat(client.query(countSql, "invalidating", (rs, rowNum) -> {
+					client.update("insert into cached values (?)", 4);
+					return rs.getInt(1);
+				})).containsExactly(3);
+				assertThat(client.query(countSql, "invalidating", (rs, rowNum) -> rs.getInt(1))).containsExactly(4);
+				assertThat(ctx.getBean(MeterRegistry.class).get("cache.gets").tag("prefix", "foo").meters())
+					.isNotEmpty();
+			});
+	}
+
+	@Test
+	void testTracingDataSource() {
+		AtomicReference<HikariDataSource> hikariDataSource = new AtomicReference<>();
+		runner.withBean(SimpleMeterRegistry.class)
+			.withPropertyValues("additional.jdbc.foo.tracing.enabled=true",
+					"additional.jdbc.tracing.slow-query-threshold=0ms")
+			.run((ctx) -> {
+				assertThat(ctx.getBean("barDataSource")).isInstanceOf(HikariDataSource.class);
+				DataSource fooDataSource = ctx.getBean("fooDataSource", DataSource.class);
+				assertThat(fooDataSource).isInstanceOf(TracingDataSource.class);
+				hikariDataSource
+					.set(DataSourceUnwrapper.unwrap(fooDataSource, HikariConfigMXBean.class, HikariDataSource.class));
+				assertThat(hikariDataSource.get().getPoolName()).isEqualTo("foo");
+				JdbcTemplate jdbcTemplate = ctx.getBean("fooJdbcTemplate", JdbcTemplate.class);
+				jdbcTemplate.execute("create table if not exists traced (id int)");
+				jdbcTemplate.update("insert into traced values (?)", 1);
+				jdbcTemplate.update("insert into traced values (?)", 2);
+				assertThat(jdbcTemplate.queryForObject("select count(*) from traced", Integer.class)).isPositive();
+				try (Connection con = fooDataSource.getConnection()) {
+					assertThat(con.isWrapperFor(Connection.class)).isTrue();
+					assertThat(con.getMetaData().getConnection()).isSameAs(con);
+					try (PreparedStatement ps = con.prepareStatement("insert into traced values (3)",
+							Statement.RETURN_GENERATED_KEYS)) {
+						ps.executeUpdate();
+						assertThat(ps.getGeneratedKeys()).isNotNull();
+					}
+					try (Statement statement = con.createStatement();
+							ResultSet rs = statement.executeQuery("select id from traced")) {
+						// result sets are not proxied
+						assertThat(Proxy.isProxyClass(rs.getClass())).isFalse();
+						assertThat(statement.isWrapperFor(Statement.class)).isTrue();
+						assertThat(statement.unwrap(Statement.class)).isSameAs(statement);
+					}
+				}
+				MeterRegistry meterRegistry = ctx.getBean(MeterRegistry.class);
+				assertThat(meterRegistry.get("additional.jdbc.connection.acquire")
+					.tag("prefix", "foo")
+					.tag("outcome", "success")
+					.timer()
+					.count()).isPositive();
+				assertThat(meterRegistry.get("additional.jdbc.statement.execute")
+					.tag("prefix", "foo")
+					.tag("outcome", "success")
+					.timer()
+					.count()).isGreaterThanOrEqualTo(4);
+				assertThat(meterRegistry.get("additional.jdbc.statement.rows")
+					.tag("prefix", "foo")
+					.summary()
+					.totalAmount()).isGreaterThanOrEqualTo(2);
+			});
+		assertThat(hikariDataSource.get().isClosed()).isTrue();
+	}
+
+	private static int totalConnections(HikariDataSource dataSource) {
+		return dataSource.getHikariPoolMXBean().getTotalConnections();
+	}
+
+	static class LazyJdbcTemplateClient {
+
+		final JdbcTemplate jdbcTemplate;
+
+		LazyJdbcTemplateClient(@Lazy @Qualifier("fooJdbcTemplate") JdbcTemplate jdbcTemplate) {
+			this.jdbcTemplate = jdbcTemplate;
+		}
+
+	}
+
+	static class EagerJdbcTemplateClient {
+
+		final JdbcTemplate jdbcTemplate;
+
+		EagerJdbcTemplateClient(@Qualifier("barJdbcTemplate") JdbcTemplate jdbcTemplate) {
+			this.jdbcTemplate = jdbcTemplate;
+		}
+
+	}
+
 }
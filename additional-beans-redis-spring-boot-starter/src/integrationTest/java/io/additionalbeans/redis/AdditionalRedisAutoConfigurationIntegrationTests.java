@@ -1,5 +1,11 @@
 package io.additionalbeans.redis;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.Test;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.junit.jupiter.Container;
@@ -19,12 +25,15 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 /**
  * @author Yanming Zhou
  */
 @TestPropertySource(properties = { "additional.redis.prefixes=foo,bar", "spring.data.redis.database=1",
-		"foo.data.redis.database=2", "bar.data.redis.database=3", "bar.data.redis.client-type=jedis" })
+		"foo.data.redis.database=2", "bar.data.redis.database=3", "bar.data.redis.client-type=jedis",
+		"additional.redis.foo.near-cache.enabled=true", "additional.redis.foo.batching.enabled=true",
+		"additional.redis.sharding.shards=foo,bar" })
 @SpringJUnitConfig
 @Testcontainers
 @ImportAutoConfiguration({ RedisAutoConfiguration.class, AdditionalRedisAutoConfiguration.class })
@@ -72,6 +81,18 @@ class AdditionalRedisAutoConfigurationIntegrationTests {
 	@Qualifier("barStringRedisTemplate")
 	private StringRedisTemplate barStringRedisTemplate;
 
+	@Autowired
+	@Qualifier("fooRedisNearCache")
+	private RedisNearCache<String, String> fooRedisNearCache;
+
+	@Autowired
+	@Qualifier("fooBatchingRedisTemplate")
+	private BatchingRedisTemplate<String, String> fooBatchingRedisTemplate;
+
+	@Autowired
+	@Qualifier("shardedRedisTemplate")
+	private ShardedRedisTemplate<String, String> shardedRedisTemplate;
+
 	@Test
 	void testRedisProperties() {
 		assertThat(this.fooRedisProperties.getHost()).isEqualTo(this.redisProperties.getHost());
@@ -119,4 +140,52 @@ class AdditionalRedisAutoConfigurationIntegrationTests {
 		this.barStringRedisTemplate.delete(key);
 	}
 
+	@Test
+	void testRedisNearCache() {
+		String key = "near";
+		ValueOperations<String, String> fooOps = this.fooStringRedisTemplate.opsForValue();
+		fooOps.set(key, "v1");
+		assertThat(this.fooRedisNearCache.get(key)).isEqualTo("v1");
+		long hits = this.fooRedisNearCache.getHitCount();
+		assertThat(this.fooRedisNearCache.get(key)).isEqualTo("v1");
+		assertThat(this.fooRedisNearCache.getHitCount()).isEqualTo(hits + 1);
+		fooOps.set(key, "v2");
+		await().untilAsserted(() -> assertThat(this.fooRedisNearCache.get(key)).isEqualTo("v2"));
+		this.fooStringRedisTemplate.delete(key);
+		await().untilAsserted(() -> assertThat(this.fooRedisNearCache.get(key)).isNull());
+	}
+
+	@Test
+	void testBatchingRedisTemplate() {
+		String key = "batching";
+		List<CompletableFuture<Long>> futures = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			futures.add(this.fooBatchingRedisTemplate.increment(key, 1));
+		}
+		CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+		assertThat(futures.get(futures.size() - 1).join()).isEqualTo(1000);
+		assertThat(this.fooStringRedisTemplate.opsForValue().get(key)).isEqualTo("1000");
+		assertThat(this.fooBatchingRedisTemplate.delete(key).join()).isEqualTo(1);
+	}
+
+	@Test
+	void testShardedRedisTemplate() {
+		Map<String, String> values = new LinkedHashMap<>();
+		for (int i = 0; i < 100; i++) {
+			values.put("sharded" + i, "value" + i);
+		}
+		this.shardedRedisTemplate.multiSet(values);
+		List<String> keys = new ArrayList<>(values.keySet());
+		keys.add("absent");
+		List<String> expected = new ArrayList<>(values.values());
+		expected.add(null);
+		assertThat(this.shardedRedisTemplate.multiGet(keys)).containsExactlyElementsOf(expected);
+		values.keySet()
+			.forEach((key) -> assertThat(this.shardedRedisTemplate.forKey(key).opsForValue().get(key))
+				.isEqualTo(values.get(key)));
+		assertThat(this.fooStringRedisTemplate.keys("sharded*")).isNotEmpty();
+		assertThat(this.barStringRedisTemplate.keys("sharded*")).isNotEmpty();
+		assertThat(this.shardedRedisTemplate.delete(values.keySet())).isEqualTo(values.size());
+	}
+
 }
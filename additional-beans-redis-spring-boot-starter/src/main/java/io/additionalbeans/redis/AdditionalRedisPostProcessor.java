@@ -1,15 +1,39 @@
 package io.additionalbeans.redis;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
 import io.additionalbeans.commons.AdditionalBeansPostProcessor;
+import io.additionalbeans.commons.ConsistentHashRing;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.resource.ClientResources;
 import io.lettuce.core.resource.DefaultClientResources;
 
+import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.autoconfigure.data.redis.RedisConnectionDetails;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisNode;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection.PipeliningFlushPolicy;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 /**
  * @author Yanming Zhou
@@ -17,10 +41,148 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 public class AdditionalRedisPostProcessor
 		extends AdditionalBeansPostProcessor<RedisProperties, RedisConnectionDetails> {
 
+	public static final String SHARED_CLIENT_RESOURCES_BEAN_NAME = "sharedClientResources";
+
+	public static final String SHARDED_REDIS_TEMPLATE_BEAN_NAME = "shardedRedisTemplate";
+
+	private static final String CLIENT_RESOURCES_DESTROY_METHOD_NAME = "shutdown";
+
+	private static final int DEFAULT_NEAR_CACHE_MAXIMUM_SIZE = 10000;
+
+	private static final int DEFAULT_PIPELINING_BUFFER_SIZE = 100;
+
+	private static final int DEFAULT_BATCH_SIZE = 100;
+
+	private static final Duration DEFAULT_BATCH_FLUSH_INTERVAL = Duration.ofMillis(5);
+
+	private static final int DEFAULT_BATCH_MAX_PENDING = 10000;
+
 	@Override
 	protected void registerBeanDefinitions(BeanDefinitionRegistry registry, String prefix) {
 		registerRedisConnectionFactory(registry, prefix);
 		registerRedisTemplate(registry, prefix);
+		if (bindProperty(prefix, "near-cache.enabled", Boolean.class, false)) {
+			registerRedisNearCache(registry, prefix);
+		}
+		if (isBatching(prefix)) {
+			registerBatchingRedisTemplate(registry, prefix);
+		}
+	}
+
+	@Override
+	protected void registerAotProbeBeanDefinitions(BeanDefinitionRegistry registry, String prefix) {
+		super.registerAotProbeBeanDefinitions(registry, prefix);
+		// the client type may be chosen per prefix at runtime
+		ClassLoader classLoader = RedisAutoConfiguration.class.getClassLoader();
+		if (ClassUtils.isPresent("redis.clients.jedis.Jedis", classLoader)) {
+			registerBeanDefinition(registry,
+					RedisAutoConfiguration.class.getPackageName() + ".JedisConnectionConfiguration", prefix);
+		}
+		if (ClassUtils.isPresent("io.lettuce.core.RedisClient", classLoader)) {
+			registerBeanDefinition(registry,
+					RedisAutoConfiguration.class.getPackageName() + ".LettuceConnectionConfiguration", prefix);
+		}
+	}
+
+	@Override
+	public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+		super.postProcessBeanDefinitionRegistry(registry);
+		List<String> shards = this.binder.bind(configurationKeyFor("sharding.shards"), Bindable.listOf(String.class))
+			.orElse(Collections.emptyList());
+		if (!shards.isEmpty()) {
+			registerShardedRedisTemplate(registry, shards);
+		}
+	}
+
+	@Override
+	public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		bean = super.postProcessBeforeInitialization(bean, beanName);
+		if (bean instanceof RedisProperties properties) {
+			String prefix = prefixOf(beanName, RedisProperties.class);
+			if (prefix != null) {
+				applyReadFrom(properties, prefix);
+			}
+		}
+		else if (bean instanceof LettuceConnectionFactory connectionFactory) {
+			String prefix = prefixOf(beanName, RedisConnectionFactory.class);
+			if (prefix != null) {
+				List<String> replicas = replicasFor(prefix);
+				if (!replicas.isEmpty()) {
+					// the replaced factory is not initialized yet so it holds no resources
+					connectionFactory = withStaticReplicas(connectionFactory, replicas);
+					bean = connectionFactory;
+				}
+				PipeliningFlushPolicy pipeliningFlushPolicy = pipeliningFlushPolicyFor(prefix);
+				if (pipeliningFlushPolicy != null) {
+					connectionFactory.setPipeliningFlushPolicy(pipeliningFlushPolicy);
+				}
+			}
+		}
+		return bean;
+	}
+
+	private String prefixOf(String beanName, Class<?> beanClass) {
+		String suffix = beanClass.getSimpleName();
+		if (beanName.endsWith(suffix)) {
+			String prefix = beanName.substring(0, beanName.length() - suffix.length());
+			if (this.prefixes.contains(prefix)) {
+				return prefix;
+			}
+		}
+		return null;
+	}
+
+	private void applyReadFrom(RedisProperties properties, String prefix) {
+		String readFrom = bindProperty(prefix, "read-from", String.class, null);
+		// read-from of the prefix's own lettuce properties takes precedence
+		if (readFrom != null && !this.binder
+			.bind(this.defaultConfigurationPropertiesPrefix.replace("spring", prefix) + ".lettuce.read-from",
+					String.class)
+			.isBound()) {
+			properties.getLettuce().setReadFrom(readFrom);
+		}
+	}
+
+	private List<String> replicasFor(String prefix) {
+		return this.binder.bind(configurationKeyFor(prefix + ".replicas"), Bindable.listOf(String.class))
+			.orElse(Collections.emptyList());
+	}
+
+	private LettuceConnectionFactory withStaticReplicas(LettuceConnectionFactory connectionFactory,
+			List<String> replicas) {
+		Assert.state(!connectionFactory.isRedisSentinelAware() && !connectionFactory.isClusterAware(),
+				"Static replicas require a standalone master");
+		RedisStandaloneConfiguration master = connectionFactory.getStandaloneConfiguration();
+		RedisStaticMasterReplicaConfiguration configuration = new RedisStaticMasterReplicaConfiguration(
+				master.getHostName(), master.getPort());
+		for (String replica : replicas) {
+			RedisNode node = RedisNode.fromString(replica);
+			configuration.node(node.getHost(), node.getPort());
+		}
+		configuration.setDatabase(master.getDatabase());
+		configuration.setUsername(master.getUsername());
+		configuration.setPassword(master.getPassword());
+		// read-from, SSL, timeouts and client resources are kept
+		return new LettuceConnectionFactory(configuration, connectionFactory.getClientConfiguration());
+	}
+
+	private PipeliningFlushPolicy pipeliningFlushPolicyFor(String prefix) {
+		// commands coalesced by batching are written at once unless configured otherwise
+		PipeliningFlushMode mode = bindProperty(prefix, "pipelining.flush-policy", PipeliningFlushMode.class,
+				isBatching(prefix) ? PipeliningFlushMode.ON_CLOSE : null);
+		if (mode == null) {
+			return null;
+		}
+		return switch (mode) {
+			case EACH_COMMAND -> PipeliningFlushPolicy.flushEachCommand();
+			case ON_CLOSE -> PipeliningFlushPolicy.flushOnClose();
+			case BUFFERED -> PipeliningFlushPolicy.buffered(
+					bindProperty(prefix, "pipelining.buffer-size", Integer.class, DEFAULT_PIPELINING_BUFFER_SIZE));
+		};
+	}
+
+	private boolean isBatching(String prefix) {
+		return bindProperty(prefix, "batching.enabled", Boolean.class, false);
 	}
 
 	private void registerRedisConnectionFactory(BeanDefinitionRegistry registry, String prefix) {
@@ -32,14 +194,56 @@ public class AdditionalRedisPostProcessor
 		String connectionConfigurationBeanName = registerBeanDefinition(registry,
 				RedisAutoConfiguration.class.getPackageName() + '.' + connectionConfigurationClassName, prefix);
 
-		if (!useJedis) {
-			registerBeanDefinition(registry, DefaultClientResources.class, prefix, connectionConfigurationBeanName,
-					"lettuceClientResources");
+		if (useJedis) {
+			Assert.state(replicasFor(prefix).isEmpty(),
+					() -> "Static replicas of prefix '" + prefix + "' require Lettuce");
+		}
+		else {
+			registerClientResources(registry, prefix, connectionConfigurationBeanName);
 		}
 		registerBeanDefinition(registry, RedisConnectionFactory.class, prefix, connectionConfigurationBeanName,
 				"redisConnectionFactory");
 	}
 
+	private void registerClientResources(BeanDefinitionRegistry registry, String prefix,
+			String connectionConfigurationBeanName) {
+		ClientResourcesSharing sharing = bindProperty(prefix, "client-resources", ClientResourcesSharing.class,
+				ClientResourcesSharing.DEDICATED);
+		switch (sharing) {
+			case PRIMARY -> registerBeanInstanceSupplier(registry, ClientResources.class, prefix,
+					() -> this.applicationContext.getBeanProvider(ClientResources.class).getObject());
+			case SHARED -> {
+				registerSharedClientResources(registry);
+				String beanName = registerBeanInstanceSupplier(registry, ClientResources.class, prefix,
+						() -> this.applicationContext.getBean(SHARED_CLIENT_RESOURCES_BEAN_NAME,
+								ClientResources.class));
+				registry.getBeanDefinition(beanName).setDependsOn(SHARED_CLIENT_RESOURCES_BEAN_NAME);
+			}
+			default -> {
+				String beanName = registerBeanDefinition(registry, DefaultClientResources.class, prefix,
+						connectionConfigurationBeanName, "lettuceClientResources");
+				// ClientResources is not AutoCloseable, its threads are not released without it
+				registry.getBeanDefinition(beanName).setDestroyMethodName(CLIENT_RESOURCES_DESTROY_METHOD_NAME);
+			}
+		}
+	}
+
+	private void registerSharedClientResources(BeanDefinitionRegistry registry) {
+		if (registry.containsBeanDefinition(SHARED_CLIENT_RESOURCES_BEAN_NAME)) {
+			return;
+		}
+		RootBeanDefinition bd = new RootBeanDefinition(DefaultClientResources.class, () -> {
+			DefaultClientResources.Builder builder = DefaultClientResources.builder();
+			this.applicationContext.getBeanProvider(ClientResourcesBuilderCustomizer.class)
+				.orderedStream()
+				.forEach((customizer) -> customizer.customize(builder));
+			return builder.build();
+		});
+		bd.setTargetType(ClientResources.class);
+		bd.setDestroyMethodName(CLIENT_RESOURCES_DESTROY_METHOD_NAME);
+		registerModuleBeanDefinition(registry, SHARED_CLIENT_RESOURCES_BEAN_NAME, bd);
+	}
+
 	private void registerRedisTemplate(BeanDefinitionRegistry registry, String prefix) {
 		String configurationBeanName = registerBeanDefinition(registry, RedisAutoConfiguration.class, prefix);
 		registerBeanDefinition(registry, RedisTemplate.class, prefix, configurationBeanName, "redisTemplate");
@@ -47,6 +251,66 @@ public class AdditionalRedisPostProcessor
 				"stringRedisTemplate");
 	}
 
+	@SuppressWarnings("unchecked")
+	private void registerRedisNearCache(BeanDefinitionRegistry registry, String prefix) {
+		Assert.state(!useJedisFor(prefix), () -> "Near cache of prefix '" + prefix + "' requires Lettuce");
+		int maximumSize = bindProperty(prefix, "near-cache.maximum-size", Integer.class,
+				DEFAULT_NEAR_CACHE_MAXIMUM_SIZE);
+		String connectionFactoryBeanName = prefix + RedisConnectionFactory.class.getSimpleName();
+		String stringRedisTemplateBeanName = prefix + StringRedisTemplate.class.getSimpleName();
+		Supplier<AbstractRedisClient> redisClient = () -> this.applicationContext
+			.getBean(connectionFactoryBeanName, LettuceConnectionFactory.class)
+			.getRequiredNativeClient();
+		String beanName = registerBeanInstanceSupplier(registry, RedisNearCache.class, prefix, () -> {
+			// values are read as written by the StringRedisTemplate of the prefix
+			StringRedisTemplate template = this.applicationContext.getBean(stringRedisTemplateBeanName,
+					StringRedisTemplate.class);
+			return new RedisNearCache<>(redisClient, (RedisSerializer<String>) template.getKeySerializer(),
+					(RedisSerializer<String>) template.getValueSerializer(), maximumSize);
+		});
+		// the tracking connection is closed before the client of the connection factory
+		registry.getBeanDefinition(beanName).setDependsOn(connectionFactoryBeanName, stringRedisTemplateBeanName);
+	}
+
+	private void registerBatchingRedisTemplate(BeanDefinitionRegistry registry, String prefix) {
+		String stringRedisTemplateBeanName = prefix + StringRedisTemplate.class.getSimpleName();
+		int batchSize = bindProperty(prefix, "batching.batch-size", Integer.class, DEFAULT_BATCH_SIZE);
+		Duration flushInterval = bindProperty(prefix, "batching.flush-interval", Duration.class,
+				DEFAULT_BATCH_FLUSH_INTERVAL);
+		int maxPending = bindProperty(prefix, "batching.max-pending", Integer.class, DEFAULT_BATCH_MAX_PENDING);
+		String threadNamePrefix = configurationKeyFor(prefix + ".batching").replace('.', '-') + '-';
+		String beanName = registerBeanInstanceSupplier(registry, BatchingRedisTemplate.class, prefix,
+				() -> new BatchingRedisTemplate<>(
+						this.applicationContext.getBean(stringRedisTemplateBeanName, StringRedisTemplate.class),
+						batchSize, flushInterval, maxPending, threadNamePrefix));
+		// pending commands are flushed before the connection factory is destroyed
+		registry.getBeanDefinition(beanName)
+			.setDependsOn(prefix + RedisConnectionFactory.class.getSimpleName(), stringRedisTemplateBeanName);
+	}
+
+	private void registerShardedRedisTemplate(BeanDefinitionRegistry registry, List<String> shards) {
+		Assert.state(this.prefixes.containsAll(shards),
+				() -> "Shards " + shards + " should be in " + configurationKeyForPrefixes());
+		int virtualNodes = this.binder.bind(configurationKeyFor("sharding.virtual-nodes"), Integer.class)
+			.orElse(ConsistentHashRing.DEFAULT_VIRTUAL_NODES);
+		String executorBeanName = registerModuleTaskExecutor(registry, "sharding");
+		List<String> stringRedisTemplateBeanNames = shards.stream()
+			.map((prefix) -> prefix + StringRedisTemplate.class.getSimpleName())
+			.toList();
+		RootBeanDefinition bd = new RootBeanDefinition(ShardedRedisTemplate.class, () -> {
+			Map<String, StringRedisTemplate> templates = new LinkedHashMap<>();
+			for (int i = 0; i < shards.size(); i++) {
+				templates.put(shards.get(i), this.applicationContext.getBean(stringRedisTemplateBeanNames.get(i),
+						StringRedisTemplate.class));
+			}
+			return new ShardedRedisTemplate<>(templates, virtualNodes,
+					this.applicationContext.getBean(executorBeanName, Executor.class));
+		});
+		bd.setDependsOn(Stream.concat(stringRedisTemplateBeanNames.stream(), Stream.of(executorBeanName))
+			.toArray(String[]::new));
+		registerModuleBeanDefinition(registry, SHARDED_REDIS_TEMPLATE_BEAN_NAME, bd, shards);
+	}
+
 	private boolean useJedisFor(String prefix) {
 		String suffix = ".client-type";
 		return "jedis".equalsIgnoreCase(this.environment.getProperty(
@@ -54,4 +318,50 @@ public class AdditionalRedisPostProcessor
 				this.environment.getProperty(this.defaultConfigurationPropertiesPrefix + suffix)));
 	}
 
+	/**
+	 * When commands of a Lettuce pipeline are written to the connection.
+	 */
+	enum PipeliningFlushMode {
+
+		/**
+		 * Flush after each command, the default of Spring Data Redis.
+		 */
+		EACH_COMMAND,
+
+		/**
+		 * Flush once when the pipeline is closed.
+		 */
+		ON_CLOSE,
+
+		/**
+		 * Flush every {@code pipelining.buffer-size} commands and when the pipeline is
+		 * closed.
+		 */
+		BUFFERED
+
+	}
+
+	/**
+	 * How Lettuce {@link ClientResources}, i.e. event loops and timers, are provided to
+	 * the connection factory of a prefix.
+	 */
+	enum ClientResourcesSharing {
+
+		/**
+		 * Resources created for the prefix.
+		 */
+		DEDICATED,
+
+		/**
+		 * Resources of the primary connection factory.
+		 */
+		PRIMARY,
+
+		/**
+		 * Resources shared by prefixes of the module.
+		 */
+		SHARED
+
+	}
+
 }
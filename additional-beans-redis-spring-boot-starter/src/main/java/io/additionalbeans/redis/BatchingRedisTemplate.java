@@ -0,0 +1,230 @@
+package io.additionalbeans.redis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Coalesces commands issued within the flush interval into a single pipeline executed
+ * asynchronously on a dedicated thread, a pipeline is executed as soon as it reaches the
+ * batch size. Callers are blocked when the number of pending commands reaches the limit.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @author Yanming Zhou
+ */
+public class BatchingRedisTemplate<K, V> implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(BatchingRedisTemplate.class);
+
+	private final RedisOperations<K, V> redisOperations;
+
+	private final int batchSize;
+
+	private final long flushIntervalNanos;
+
+	private final Semaphore pending;
+
+	private final int maxPending;
+
+	private final ScheduledThreadPoolExecutor executor;
+
+	private List<Command<K, V>> batch = new ArrayList<>();
+
+	public BatchingRedisTemplate(RedisOperations<K, V> redisOperations, int batchSize, Duration flushInterval,
+			int maxPending, String threadNamePrefix) {
+		Assert.isTrue(batchSize > 0, "batchSize should be positive");
+		Assert.isTrue(maxPending >= batchSize, "maxPending should not be less than batchSize");
+		this.redisOperations = redisOperations;
+		this.batchSize = batchSize;
+		this.flushIntervalNanos = flushInterval.toNanos();
+		this.maxPending = maxPending;
+		this.pending = new Semaphore(maxPending);
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+		threadFactory.setDaemon(true);
+		// a single thread keeps pipelines in submission order
+		this.executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+	}
+
+	public RedisOperations<K, V> getRedisOperations() {
+		return this.redisOperations;
+	}
+
+	public CompletableFuture<Boolean> set(K key, V value) {
+		return submit((operations) -> operations.opsForValue().set(key, value));
+	}
+
+	public CompletableFuture<Boolean> set(K key, V value, Duration timeout) {
+		return submit((operations) -> operations.opsForValue().set(key, value, timeout));
+	}
+
+	public CompletableFuture<Long> increment(K key, long delta) {
+		return submit((operations) -> operations.opsForValue().increment(key, delta));
+	}
+
+	public CompletableFuture<Long> rightPush(K key, V value) {
+		return submit((operations) -> operations.opsForList().rightPush(key, value));
+	}
+
+	public CompletableFuture<Boolean> expire(K key, Duration timeout) {
+		return submit((operations) -> operations.expire(key, timeout));
+	}
+
+	public CompletableFuture<Long> delete(K key) {
+		return submit((operations) -> operations.delete(key));
+	}
+
+	/**
+	 * Add a command to the pipeline, blocking while the number of pending commands
+	 * reaches the limit.
+	 * @param command the command which should issue exactly one Redis command, its
+	 * result is taken from the pipeline
+	 * @param <T> the type of the result
+	 * @return the future of the result of the command
+	 */
+	public <T> CompletableFuture<T> submit(Consumer<RedisOperations<K, V>> command) {
+		try {
+			this.pending.acquire();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return CompletableFuture.failedFuture(ex);
+		}
+		return enqueue(command);
+	}
+
+	/**
+	 * Return the number of commands not executed yet.
+	 * @return the number of pending commands
+	 */
+	public int getPendingCount() {
+		return this.maxPending - this.pending.availablePermits();
+	}
+
+	/**
+	 * Execute pending commands and wait for their completion.
+	 */
+	public void flush() {
+		flushAsync().join();
+	}
+
+	@Override
+	public void destroy() {
+		try {
+			flush();
+		}
+		finally {
+			this.executor.shutdown();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> CompletableFuture<T> enqueue(Consumer<RedisOperations<K, V>> operation) {
+		Command<K, V> command = new Command<>(operation);
+		List<Command<K, V>> full = null;
+		boolean first;
+		synchronized (this) {
+			first = this.batch.isEmpty();
+			this.batch.add(command);
+			if (this.batch.size() >= this.batchSize) {
+				full = this.batch;
+				this.batch = new ArrayList<>();
+			}
+		}
+		if (full != null) {
+			dispatch(full);
+		}
+		else if (first && !this.executor.isShutdown()) {
+			// the window starts with its first command
+			this.executor.schedule(this::flushAsync, this.flushIntervalNanos, TimeUnit.NANOSECONDS);
+		}
+		return (CompletableFuture<T>) command.future;
+	}
+
+	private CompletableFuture<Void> flushAsync() {
+		List<Command<K, V>> batch;
+		synchronized (this) {
+			if (this.batch.isEmpty()) {
+				return CompletableFuture.completedFuture(null);
+			}
+			batch = this.batch;
+			this.batch = new ArrayList<>();
+		}
+		return dispatch(batch);
+	}
+
+	private CompletableFuture<Void> dispatch(List<Command<K, V>> batch) {
+		if (this.executor.isShutdown()) {
+			return CompletableFuture.runAsync(() -> execute(batch), Runnable::run);
+		}
+		return CompletableFuture.runAsync(() -> execute(batch), this.executor);
+	}
+
+	private void execute(List<Command<K, V>> batch) {
+		try {
+			List<Object> results;
+			try {
+				results = this.redisOperations.executePipelined(new SessionCallback<>() {
+
+					@Override
+					@SuppressWarnings("unchecked")
+					public <X, Y> Object execute(RedisOperations<X, Y> operations) throws DataAccessException {
+						batch.forEach((command) -> command.operation.accept((RedisOperations<K, V>) operations));
+						return null;
+					}
+
+				});
+			}
+			catch (RedisPipelineException ex) {
+				// failed commands are in place of their results
+				results = ex.getPipelineResult();
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				CompletableFuture<Object> future = batch.get(i).future;
+				Object result = (i < results.size()) ? results.get(i) : null;
+				if (result instanceof Throwable failure) {
+					future.completeExceptionally(failure);
+				}
+				else {
+					future.complete(result);
+				}
+			}
+		}
+		catch (RuntimeException ex) {
+			logger.warn("Failed to execute pipeline of %d commands".formatted(batch.size()), ex);
+			batch.forEach((command) -> command.future.completeExceptionally(ex));
+		}
+		finally {
+			this.pending.release(batch.size());
+		}
+	}
+
+	private static final class Command<K, V> {
+
+		private final Consumer<RedisOperations<K, V>> operation;
+
+		private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+		private Command(Consumer<RedisOperations<K, V>> operation) {
+			this.operation = operation;
+		}
+
+	}
+
+}
@@ -0,0 +1,247 @@
+package io.additionalbeans.redis;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.ByteArrayCodec;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded LRU cache of values read from Redis, kept coherent by server-assisted client
+ * side caching, i.e. {@code CLIENT TRACKING} of keys read by a dedicated RESP3
+ * connection whose invalidation pushes evict local entries. The connection is opened on
+ * first read, tracking is enabled again and local entries are discarded after
+ * reconnection.
+ * <p>
+ * A value is not cached if any invalidation arrived while it was being read, so a stale
+ * value never outlives the invalidation of its key.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @author Yanming Zhou
+ */
+public class RedisNearCache<K, V> implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(RedisNearCache.class);
+
+	private static final String INVALIDATE_MESSAGE_TYPE = "invalidate";
+
+	private final Supplier<? extends AbstractRedisClient> redisClient;
+
+	private final RedisSerializer<K> keySerializer;
+
+	private final RedisSerializer<V> valueSerializer;
+
+	private final Map<ByteBuffer, byte[]> cache;
+
+	private final AtomicLong invalidations = new AtomicLong();
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final RedisConnectionStateListener connectionStateListener = new ConnectionStateListener();
+
+	private volatile RedisClient client;
+
+	private volatile StatefulRedisConnection<byte[], byte[]> connection;
+
+	private volatile boolean tracking;
+
+	public RedisNearCache(Supplier<? extends AbstractRedisClient> redisClient, RedisSerializer<K> keySerializer,
+			RedisSerializer<V> valueSerializer, int maximumSize) {
+		Assert.isTrue(maximumSize > 0, "maximumSize should be positive");
+		this.redisClient = redisClient;
+		this.keySerializer = keySerializer;
+		this.valueSerializer = valueSerializer;
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<ByteBuffer, byte[]>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ByteBuffer, byte[]> eldest) {
+				return size() > maximumSize;
+			}
+
+		});
+	}
+
+	/**
+	 * Get the value of the key, from the local cache if present.
+	 * @param key the key
+	 * @return the value, or {@code null} if the key doesn't exist
+	 */
+	public V get(K key) {
+		byte[] rawKey = this.keySerializer.serialize(key);
+		Assert.notNull(rawKey, "key should not be null");
+		ByteBuffer cacheKey = ByteBuffer.wrap(rawKey);
+		byte[] value = this.cache.get(cacheKey);
+		if (value != null) {
+			this.hits.increment();
+			return this.valueSerializer.deserialize(value);
+		}
+		this.misses.increment();
+		StatefulRedisConnection<byte[], byte[]> connection = connection();
+		long invalidations = this.invalidations.get();
+		value = connection.sync().get(rawKey);
+		if (value != null) {
+			// invalidations are applied under the same lock
+			synchronized (this.cache) {
+				if (this.tracking && this.invalidations.get() == invalidations) {
+					this.cache.put(cacheKey, value);
+				}
+			}
+		}
+		return (value != null) ? this.valueSerializer.deserialize(value) : null;
+	}
+
+	/**
+	 * Discard the local entry of the key, a value of the key being read concurrently is
+	 * not cached.
+	 * @param key the key
+	 */
+	public void invalidate(K key) {
+		byte[] rawKey = this.keySerializer.serialize(key);
+		if (rawKey != null) {
+			synchronized (this.cache) {
+				this.invalidations.incrementAndGet();
+				this.cache.remove(ByteBuffer.wrap(rawKey));
+			}
+		}
+	}
+
+	/**
+	 * Discard all local entries.
+	 */
+	public void invalidateAll() {
+		synchronized (this.cache) {
+			this.invalidations.incrementAndGet();
+			this.cache.clear();
+		}
+	}
+
+	public int size() {
+		return this.cache.size();
+	}
+
+	public long getHitCount() {
+		return this.hits.sum();
+	}
+
+	public long getMissCount() {
+		return this.misses.sum();
+	}
+
+	@Override
+	public synchronized void destroy() {
+		StatefulRedisConnection<byte[], byte[]> connection = this.connection;
+		if (connection != null) {
+			this.client.removeListener(this.connectionStateListener);
+			connection.close();
+			this.connection = null;
+		}
+		this.tracking = false;
+		this.cache.clear();
+	}
+
+	private StatefulRedisConnection<byte[], byte[]> connection() {
+		StatefulRedisConnection<byte[], byte[]> connection = this.connection;
+		if (connection == null) {
+			synchronized (this) {
+				connection = this.connection;
+				if (connection == null) {
+					connection = connect();
+					this.connection = connection;
+				}
+			}
+		}
+		return connection;
+	}
+
+	private StatefulRedisConnection<byte[], byte[]> connect() {
+		if (!(this.redisClient.get() instanceof RedisClient redisClient)) {
+			throw new IllegalStateException("Near cache requires a standalone or sentinel RedisClient");
+		}
+		StatefulRedisConnection<byte[], byte[]> connection = redisClient.connect(ByteArrayCodec.INSTANCE);
+		try {
+			connection.addListener(this::onPushMessage);
+			connection.sync().clientTracking(TrackingArgs.Builder.enabled());
+		}
+		catch (RuntimeException ex) {
+			connection.close();
+			throw new IllegalStateException("Failed to enable client tracking, RESP3 and Redis 6+ are required", ex);
+		}
+		this.tracking = true;
+		redisClient.addListener(this.connectionStateListener);
+		this.client = redisClient;
+		return connection;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void onPushMessage(PushMessage message) {
+		if (!INVALIDATE_MESSAGE_TYPE.equals(message.getType())) {
+			return;
+		}
+		List<Object> content = message.getContent(ByteArrayCodec.INSTANCE::decodeKey);
+		synchronized (this.cache) {
+			this.invalidations.incrementAndGet();
+			// keys are absent if the database is flushed
+			if (content.size() < 2 || content.get(1) == null) {
+				this.cache.clear();
+				return;
+			}
+			for (Object key : (List<Object>) content.get(1)) {
+				this.cache.remove(ByteBuffer.wrap((byte[]) key));
+			}
+		}
+	}
+
+	private final class ConnectionStateListener implements RedisConnectionStateListener {
+
+		@Override
+		public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+			StatefulRedisConnection<byte[], byte[]> trackingConnection = RedisNearCache.this.connection;
+			if (connection != trackingConnection) {
+				return;
+			}
+			// invalidations are lost while disconnected
+			invalidateAll();
+			trackingConnection.async().clientTracking(TrackingArgs.Builder.enabled()).whenComplete((result, ex) -> {
+				if (ex != null) {
+					logger.warn("Failed to enable client tracking after reconnection", ex);
+					return;
+				}
+				// discard values read before tracking is enabled
+				invalidateAll();
+				RedisNearCache.this.tracking = true;
+			});
+		}
+
+		@Override
+		public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+			if (connection == RedisNearCache.this.connection) {
+				RedisNearCache.this.tracking = false;
+				invalidateAll();
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,181 @@
+package io.additionalbeans.redis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import io.additionalbeans.commons.ConsistentHashRing;
+import io.additionalbeans.commons.ScatterGather;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * A facade over {@link RedisOperations} of shard prefixes, a shard is selected by a key
+ * through a {@link ConsistentHashRing}, multi-key operations are split by shard and
+ * executed in parallel. Like Redis Cluster, only the hash tag of a key i.e. the content
+ * between the first <code>{</code> and the following <code>}</code> is hashed if present,
+ * so keys sharing a hash tag are stored on the same shard.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of values
+ * @author Yanming Zhou
+ */
+public class ShardedRedisTemplate<K, V> {
+
+	private final ConsistentHashRing<RedisOperations<K, V>> ring;
+
+	private final RedisSerializer<K> keySerializer;
+
+	private final Executor executor;
+
+	@SuppressWarnings("unchecked")
+	public ShardedRedisTemplate(Map<String, ? extends RedisOperations<K, V>> shards, int virtualNodes,
+			Executor executor) {
+		Assert.notEmpty(shards, "shards should not be empty");
+		this.ring = new ConsistentHashRing<>(new LinkedHashMap<>(shards), virtualNodes);
+		// keys are serialized identically by all shards
+		this.keySerializer = (RedisSerializer<K>) shards.values().iterator().next().getKeySerializer();
+		this.executor = executor;
+	}
+
+	/**
+	 * Return the shards keyed by prefix.
+	 * @return the shards
+	 */
+	public Map<String, RedisOperations<K, V>> getShards() {
+		return this.ring.getNodes();
+	}
+
+	/**
+	 * Return the prefix of the shard owning the given key.
+	 * @param key the key
+	 * @return the prefix of the shard
+	 */
+	public String shardFor(K key) {
+		return this.ring.nodeNameFor(hashKey(key));
+	}
+
+	/**
+	 * Return the operations of the shard owning the given key.
+	 * @param key the key
+	 * @return the operations of the shard
+	 */
+	public RedisOperations<K, V> forKey(K key) {
+		return this.ring.nodeFor(hashKey(key));
+	}
+
+	public V get(K key) {
+		return forKey(key).opsForValue().get(key);
+	}
+
+	public void set(K key, V value) {
+		forKey(key).opsForValue().set(key, value);
+	}
+
+	public void set(K key, V value, Duration timeout) {
+		forKey(key).opsForValue().set(key, value, timeout);
+	}
+
+	public Boolean delete(K key) {
+		return forKey(key).delete(key);
+	}
+
+	/**
+	 * Get values of the given keys, keys are fetched from their shards in parallel.
+	 * @param keys the keys
+	 * @return the values in key order, {@code null} for absent keys
+	 */
+	public List<V> multiGet(Collection<K> keys) {
+		Map<K, V> values = new HashMap<>();
+		executeByShard(keys, (operations, shardKeys) -> {
+			List<V> shardValues = operations.opsForValue().multiGet(shardKeys);
+			Map<K, V> result = new HashMap<>();
+			for (int i = 0; i < shardKeys.size(); i++) {
+				result.put(shardKeys.get(i), (shardValues != null) ? shardValues.get(i) : null);
+			}
+			return result;
+		}).values().forEach(values::putAll);
+		List<V> result = new ArrayList<>(keys.size());
+		keys.forEach((key) -> result.add(values.get(key)));
+		return result;
+	}
+
+	/**
+	 * Set the given values, keys are stored on their shards in parallel.
+	 * @param values the values keyed by key
+	 */
+	public void multiSet(Map<K, V> values) {
+		executeByShard(values.keySet(), (operations, shardKeys) -> {
+			Map<K, V> shardValues = new LinkedHashMap<>();
+			shardKeys.forEach((key) -> shardValues.put(key, values.get(key)));
+			operations.opsForValue().multiSet(shardValues);
+			return null;
+		});
+	}
+
+	/**
+	 * Delete the given keys, keys are deleted from their shards in parallel.
+	 * @param keys the keys
+	 * @return the number of keys deleted
+	 */
+	public long delete(Collection<K> keys) {
+		long deleted = 0;
+		for (Long count : executeByShard(keys, RedisOperations::delete).values()) {
+			deleted += (count != null) ? count : 0;
+		}
+		return deleted;
+	}
+
+	/**
+	 * Execute the given operation on every shard in parallel.
+	 * @param operation the operation
+	 * @param <T> the type of the result
+	 * @return the results keyed by prefix, in shard order
+	 */
+	public <T> Map<String, T> executeAll(Function<RedisOperations<K, V>, T> operation) {
+		return ScatterGather.execute(getShards(), (prefix, operations) -> operation.apply(operations), this.executor);
+	}
+
+	private <T> Map<String, T> executeByShard(Collection<K> keys,
+			BiFunction<RedisOperations<K, V>, List<K>, T> operation) {
+		Map<String, RedisOperations<K, V>> shards = getShards();
+		return ScatterGather.execute(this.ring.partition(keys, this::hashKey),
+				(prefix, shardKeys) -> operation.apply(shards.get(prefix), shardKeys), this.executor);
+	}
+
+	private byte[] hashKey(K key) {
+		byte[] bytes = this.keySerializer.serialize(key);
+		Assert.notNull(bytes, "key should not be null");
+		return hashTagOf(bytes);
+	}
+
+	static byte[] hashTagOf(byte[] key) {
+		for (int start = 0; start < key.length; start++) {
+			if (key[start] == '{') {
+				for (int end = start + 1; end < key.length; end++) {
+					if (key[end] == '}') {
+						// empty hash tags are ignored like Redis Cluster does
+						if (end == start + 1) {
+							return key;
+						}
+						byte[] tag = new byte[end - start - 1];
+						System.arraycopy(key, start + 1, tag, 0, tag.length);
+						return tag;
+					}
+				}
+				return key;
+			}
+		}
+		return key;
+	}
+
+}
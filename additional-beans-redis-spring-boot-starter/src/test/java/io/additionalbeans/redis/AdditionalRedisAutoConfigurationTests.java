@@ -1,5 +1,10 @@
 package io.additionalbeans.redis;
 
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.resource.ClientResources;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.boot.autoconfigure.AutoConfigurations;
@@ -9,10 +14,13 @@ import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.core.ResolvableType;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStaticMasterReplicaConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection.PipeliningFlushPolicy;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -102,4 +110,137 @@ class AdditionalRedisAutoConfigurationTests {
 		});
 	}
 
+	@Test
+	void testDedicatedClientResources() {
+		AtomicReference<ClientResources> clientResources = new AtomicReference<>();
+		runner.run((ctx) -> {
+			ClientResources fooClientResources = ctx.getBean("fooClientResources", ClientResources.class);
+			assertThat(fooClientResources).isNotSameAs(ctx.getBean(ClientResources.class));
+			assertThat(ctx.getBean("fooRedisConnectionFactory", LettuceConnectionFactory.class).getClientResources())
+				.isSameAs(fooClientResources);
+			assertThat(ctx.containsBean("barClientResources")).isFalse();
+			clientResources.set(fooClientResources);
+		});
+		assertThat(clientResources.get().eventExecutorGroup().isShuttingDown()).isTrue();
+	}
+
+	@Test
+	void testSharedClientResources() {
+		AtomicReference<ClientResources> clientResources = new AtomicReference<>();
+		runner
+			.withPropertyValues("additional.redis.prefixes=foo,bar,baz", "bar.data.redis.client-type=lettuce",
+					"additional.redis.client-resources=shared", "additional.redis.baz.client-resources=primary")
+			.run((ctx) -> {
+				ClientResources sharedClientResources = ctx
+					.getBean(AdditionalRedisPostProcessor.SHARED_CLIENT_RESOURCES_BEAN_NAME, ClientResources.class);
+				ClientResources primaryClientResources = ctx.getBean(ClientResources.class);
+				assertThat(sharedClientResources).isNotSameAs(primaryClientResources);
+				assertThat(ctx.getBean("fooClientResources")).isSameAs(sharedClientResources);
+				assertThat(ctx.getBean("barClientResources")).isSameAs(sharedClientResources);
+				assertThat(ctx.getBean("bazClientResources")).isSameAs(primaryClientResources);
+				assertThat(ctx.getBean("barRedisConnectionFactory", LettuceConnectionFactory.class)
+					.getClientResources()).isSameAs(sharedClientResources);
+				clientResources.set(sharedClientResources);
+			});
+		assertThat(clientResources.get().eventExecutorGroup().isShuttingDown()).isTrue();
+	}
+
+	@Test
+	void testRedisNearCache() {
+		runner.withPropertyValues("additional.redis.foo.near-cache.enabled=true").run((ctx) -> {
+			RedisNearCache<?, ?> fooRedisNearCache = ctx.getBean("fooRedisNearCache", RedisNearCache.class);
+			// connected on first read
+			assertThat(fooRedisNearCache.size()).isZero();
+			assertThat(fooRedisNearCache.getMissCount()).isZero();
+			assertThat(ctx.containsBean("barRedisNearCache")).isFalse();
+		});
+		runner.withPropertyValues("additional.redis.near-cache.enabled=true")
+			.run((ctx) -> assertThat(ctx).hasFailed());
+	}
+
+	@Test
+	void testBatchingRedisTemplate() {
+		runner
+			.withPropertyValues("additional.redis.prefixes=foo,bar,baz", "additional.redis.foo.batching.enabled=true",
+					"additional.redis.baz.pipelining.flush-policy=buffered")
+			.run((ctx) -> {
+				BatchingRedisTemplate<?, ?> fooBatchingRedisTemplate = ctx.getBean("fooBatchingRedisTemplate",
+						BatchingRedisTemplate.class);
+				assertThat(fooBatchingRedisTemplate.getRedisOperations())
+					.isSameAs(ctx.getBean("fooStringRedisTemplate"));
+				assertThat(fooBatchingRedisTemplate.getPendingCount()).isZero();
+				assertThat(ctx.containsBean("barBatchingRedisTemplate")).isFalse();
+				assertThat(pipeliningFlushPolicyOf(ctx.getBean(LettuceConnectionFactory.class)))
+					.isSameAs(PipeliningFlushPolicy.flushEachCommand());
+				assertThat(pipeliningFlushPolicyOf(ctx.getBean("fooRedisConnectionFactory")))
+					.isSameAs(PipeliningFlushPolicy.flushOnClose());
+				assertThat(pipeliningFlushPolicyOf(ctx.getBean("bazRedisConnectionFactory")))
+					.isNotSameAs(PipeliningFlushPolicy.flushEachCommand())
+					.isNotSameAs(PipeliningFlushPolicy.flushOnClose());
+			});
+	}
+
+	private static Object pipeliningFlushPolicyOf(Object connectionFactory) {
+		return ReflectionTestUtils.getField(connectionFactory, "pipeliningFlushPolicy");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	void testShardedRedisTemplate() {
+		runner.withPropertyValues("additional.redis.sharding.shards=foo,bar").run((ctx) -> {
+			ShardedRedisTemplate<String, String> shardedRedisTemplate = ctx
+				.getBean(AdditionalRedisPostProcessor.SHARDED_REDIS_TEMPLATE_BEAN_NAME, ShardedRedisTemplate.class);
+			assertThat(shardedRedisTemplate.getShards()).containsOnlyKeys("foo", "bar");
+			assertThat(shardedRedisTemplate.getShards().get("foo")).isSameAs(ctx.getBean("fooStringRedisTemplate"));
+			assertThat(IntStream.range(0, 100).mapToObj((i) -> shardedRedisTemplate.shardFor("key" + i)))
+				.contains("foo", "bar");
+			assertThat(IntStream.range(0, 100).mapToObj((i) -> shardedRedisTemplate.shardFor("{user}:" + i)))
+				.containsOnly(shardedRedisTemplate.shardFor("user"));
+			assertThat(shardedRedisTemplate.forKey("{}:1")).isSameAs(
+					shardedRedisTemplate.getShards().get(shardedRedisTemplate.shardFor("{}:1")));
+		});
+		runner.withPropertyValues("additional.redis.sharding.shards=foo,baz")
+			.run((ctx) -> assertThat(ctx).hasFailed());
+	}
+
+	@Test
+	void testReadFrom() {
+		runner
+			.withPropertyValues("additional.redis.prefixes=foo,bar,baz", "additional.redis.read-from=replica-preferred",
+					"foo.data.redis.lettuce.read-from=any")
+			.run((ctx) -> {
+				assertThat(ctx.getBean(LettuceConnectionFactory.class).getClientConfiguration().getReadFrom())
+					.isEmpty();
+				assertThat(ctx.getBean("fooRedisConnectionFactory", LettuceConnectionFactory.class)
+					.getClientConfiguration()
+					.getReadFrom()).contains(ReadFrom.ANY);
+				assertThat(ctx.getBean("bazRedisConnectionFactory", LettuceConnectionFactory.class)
+					.getClientConfiguration()
+					.getReadFrom()).contains(ReadFrom.REPLICA_PREFERRED);
+			});
+	}
+
+	@Test
+	void testStaticReplicas() {
+		runner
+			.withPropertyValues("additional.redis.foo.replicas=127.0.0.1:6380,127.0.0.1:6381",
+					"foo.data.redis.lettuce.read-from=replica-preferred")
+			.run((ctx) -> {
+				LettuceConnectionFactory fooRedisConnectionFactory = ctx.getBean("fooRedisConnectionFactory",
+						LettuceConnectionFactory.class);
+				assertThat(ReflectionTestUtils.getField(fooRedisConnectionFactory, "configuration"))
+					.isInstanceOfSatisfying(RedisStaticMasterReplicaConfiguration.class, (configuration) -> {
+						assertThat(configuration.getNodes()).hasSize(3);
+						assertThat(configuration.getDatabase()).isEqualTo(2);
+						assertThat(configuration.getUsername()).isEqualTo("foo");
+					});
+				assertThat(fooRedisConnectionFactory.getClientConfiguration().getReadFrom())
+					.contains(ReadFrom.REPLICA_PREFERRED);
+				assertThat(ctx.getBean("fooRedisTemplate", RedisTemplate.class).getConnectionFactory())
+					.isSameAs(fooRedisConnectionFactory);
+			});
+		runner.withPropertyValues("additional.redis.bar.replicas=127.0.0.1:6380")
+			.run((ctx) -> assertThat(ctx).hasFailed());
+	}
+
 }
@@ -0,0 +1,110 @@
+package io.additionalbeans.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Yanming Zhou
+ */
+class RedisNearCacheTests {
+
+	private static final byte[] KEY = "key".getBytes(StandardCharsets.UTF_8);
+
+	private static final byte[] VALUE = "value".getBytes(StandardCharsets.UTF_8);
+
+	private final AtomicReference<PushListener> pushListener = new AtomicReference<>();
+
+	private RedisCommands<byte[], byte[]> commands;
+
+	private RedisNearCache<String, String> nearCache;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		RedisClient redisClient = mock();
+		StatefulRedisConnection<byte[], byte[]> connection = mock();
+		this.commands = mock();
+		given(redisClient.connect(ByteArrayCodec.INSTANCE)).willReturn(connection);
+		given(connection.sync()).willReturn(this.commands);
+		given(this.commands.clientTracking(any(TrackingArgs.class))).willReturn("OK");
+		willAnswer((invocation) -> {
+			this.pushListener.set(invocation.getArgument(0));
+			return null;
+		}).given(connection).addListener(any(PushListener.class));
+		this.nearCache = new RedisNearCache<>(() -> redisClient, RedisSerializer.string(), RedisSerializer.string(),
+				10);
+	}
+
+	@Test
+	void valueIsNotCachedIfInvalidatedWhileReading() {
+		given(this.commands.get(KEY)).willAnswer((invocation) -> {
+			this.pushListener.get().onPushMessage(invalidate(List.of(KEY)));
+			return VALUE;
+		});
+		assertThat(this.nearCache.get("key")).isEqualTo("value");
+		assertThat(this.nearCache.size()).isZero();
+
+		// stubbed without invoking the previous answer
+		willReturn(VALUE).given(this.commands).get(KEY);
+		assertThat(this.nearCache.get("key")).isEqualTo("value");
+		assertThat(this.nearCache.size()).isOne();
+		assertThat(this.nearCache.get("key")).isEqualTo("value");
+		assertThat(this.nearCache.getHitCount()).isOne();
+		assertThat(this.nearCache.getMissCount()).isEqualTo(2);
+	}
+
+	@Test
+	void valueIsNotCachedIfInvalidatedExplicitlyWhileReading() {
+		given(this.commands.get(KEY)).willAnswer((invocation) -> {
+			this.nearCache.invalidate("key");
+			return VALUE;
+		});
+		assertThat(this.nearCache.get("key")).isEqualTo("value");
+		assertThat(this.nearCache.size()).isZero();
+	}
+
+	@Test
+	void invalidationEvictsCachedValue() {
+		given(this.commands.get(KEY)).willReturn(VALUE);
+		this.nearCache.get("key");
+		assertThat(this.nearCache.size()).isOne();
+		this.pushListener.get().onPushMessage(invalidate(List.of(KEY)));
+		assertThat(this.nearCache.size()).isZero();
+
+		this.nearCache.get("key");
+		assertThat(this.nearCache.size()).isOne();
+		// keys are absent if the database is flushed
+		this.pushListener.get().onPushMessage(invalidate(null));
+		assertThat(this.nearCache.size()).isZero();
+	}
+
+	private static PushMessage invalidate(List<byte[]> keys) {
+		PushMessage message = mock();
+		given(message.getType()).willReturn("invalidate");
+		byte[] type = "invalidate".getBytes(StandardCharsets.UTF_8);
+		given(message.getContent(any())).willReturn(Arrays.asList(type, keys));
+		return message;
+	}
+
+}
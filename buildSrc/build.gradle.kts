@@ -41,4 +41,5 @@ dependencies {
 	implementation("""io.spring.javaformat:spring-javaformat-gradle-plugin:${property("javaformat-plugin.version")}""")
 	implementation("""com.netflix.nebula:nebula-archrules-gradle-plugin:${property("nebula-archrules-gradle-plugin.version")}""")
 	implementation("""org.springframework.boot:org.springframework.boot.gradle.plugin:${property("spring-boot.version")}""")
+	implementation("""me.champeau.jmh:jmh-gradle-plugin:${property("jmh-plugin.version")}""")
 }